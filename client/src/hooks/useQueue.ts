@@ -4,6 +4,23 @@ import { queueApi } from '../services/api';
 import { QueueResponse, QueueStatsResponse, QueueObject } from '../types';
 
 const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:3001';
+const DEFAULT_QUEUE_LIMIT = 100;
+
+const byMostRecent = (a: QueueObject, b: QueueObject) => {
+  const updatedDiff = new Date(b.updated).getTime() - new Date(a.updated).getTime();
+  if (updatedDiff !== 0) {
+    return updatedDiff;
+  }
+  return new Date(b.created).getTime() - new Date(a.created).getTime();
+};
+
+// Applies a delta push from the queue stream: changed objects replace their previous
+// version, new ones are added, and the list is cut back to the requested size.
+export const applyQueueChanges = (current: QueueObject[], changed: QueueObject[], limit: number): QueueObject[] => {
+  const byId = new Map(current.map(obj => [obj.objectId, obj]));
+  changed.forEach(obj => byId.set(obj.objectId, obj));
+  return Array.from(byId.values()).sort(byMostRecent).slice(0, limit);
+};
 
 export const useQueueObjects = (limit?: number) => {
   const queryClient = useQueryClient();
@@ -45,16 +62,21 @@ export const useQueueObjects = (limit?: number) => {
         
         eventSourceRef.current.onmessage = (event) => {
           try {
-            const data: QueueResponse = JSON.parse(event.data);
+            const data: QueueResponse & { type?: 'snapshot' | 'changes' } = JSON.parse(event.data);
             if (data.success) {
-              const newObjects = data.data || [];
               const previousObjects = previousDataRef.current;
+              // Snapshots replace the list; change pushes carry only the objects that changed
+              const receivedObjects = data.data || [];
+              const newObjects = data.type === 'changes'
+                ? applyQueueChanges(previousObjects, receivedObjects, limit || DEFAULT_QUEUE_LIMIT)
+                : receivedObjects;
+              const previousById = new Map(previousObjects.map(prev => [prev.objectId, prev]));
               
               const newIds: string[] = [];
               const updatedIds: string[] = [];
               
-              newObjects.forEach(obj => {
-                const previousObj = previousObjects.find(prev => prev.objectId === obj.objectId);
+              receivedObjects.forEach(obj => {
+                const previousObj = previousById.get(obj.objectId);
                 
                 if (!previousObj) {
                   newIds.push(obj.objectId);
@@ -86,7 +108,7 @@ export const useQueueObjects = (limit?: number) => {
               }
               
               previousDataRef.current = newObjects;
-              queryClient.setQueryData(queryKey.current, data);
+              queryClient.setQueryData(queryKey.current, { success: true, data: newObjects, count: newObjects.length });
             }
           } catch (error) {
             console.error('Failed to parse SSE data:', error);
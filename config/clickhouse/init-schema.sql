@@ -2,6 +2,9 @@
 -- Initialize ClickHouse tables and materialized views for real-time metrics
 
 -- Main table for audit completion events
+-- event_id and completed_at are derived from the source event, so replayed rows collapse on merge.
+-- Until a merge has run duplicates are still stored; read with FINAL or LIMIT 1 BY event_id.
+-- Existing MergeTree tables are converted by migrations/001_replacing_audit_completions.sql.
 CREATE TABLE IF NOT EXISTS audit_completions (
     event_id String,
     audit_id String,
@@ -15,70 +18,63 @@ CREATE TABLE IF NOT EXISTS audit_completions (
     processing_time_ms UInt32,
     event_date Date MATERIALIZED toDate(completed_at),
     event_hour DateTime MATERIALIZED toStartOfHour(completed_at)
-) ENGINE = MergeTree()
+) ENGINE = ReplacingMergeTree()
 PARTITION BY toYYYYMM(event_date)
-ORDER BY (company_id, completed_at);
+ORDER BY (company_id, completed_at, event_id);
 
--- Materialized view for hourly metrics aggregation
-CREATE MATERIALIZED VIEW IF NOT EXISTS mv_hourly_metrics
-ENGINE = SummingMergeTree()
-ORDER BY (hour, company_id)
-AS SELECT
-    toStartOfHour(completed_at) as hour,
-    company_id,
-    company_name,
-    count() as event_count,
-    sum(amount) as total_amount,
-    countIf(outcome = 'SUCCESS') as success_count,
-    countIf(outcome = 'FAILURE') as failure_count,
-    avg(processing_time_ms) as avg_processing_time_ms
-FROM audit_completions
-GROUP BY hour, company_id, company_name;
-
--- Materialized view for daily metrics aggregation
-CREATE MATERIALIZED VIEW IF NOT EXISTS mv_daily_metrics
-ENGINE = SummingMergeTree()
-ORDER BY (date, company_id)
-AS SELECT
-    toDate(completed_at) as date,
-    company_id,
-    company_name,
-    count() as event_count,
-    sum(amount) as total_amount,
-    countIf(outcome = 'SUCCESS') as success_count,
-    countIf(outcome = 'FAILURE') as failure_count,
-    avg(processing_time_ms) as avg_processing_time_ms
-FROM audit_completions
-GROUP BY date, company_id, company_name;
-
--- Table for storing aggregated company metrics (for fast queries)
+-- Hourly per-company aggregates, recomputed by the event processor from audit_completions
+-- FINAL once a window closes and again whenever late rows land in it. Each rollup replaces
+-- the previous one for its (company_id, window_start), so replayed events are not counted
+-- twice; read with FINAL. Only sums and counts are stored; rates and averages are derived
+-- in v_company_metrics_summary.
+-- Existing SummingMergeTree tables are converted by migrations/003_rebuild_company_metrics_summary.sql.
 CREATE TABLE IF NOT EXISTS company_metrics_summary (
+    window_start DateTime,
     company_id String,
     company_name String,
     total_events UInt64,
     total_amount Decimal(18,2),
     success_events UInt64,
     failure_events UInt64,
-    success_rate Float64,
-    avg_processing_time_ms Float64,
-    last_updated DateTime64(3) DEFAULT now()
+    processing_time_sum_ms UInt64,
+    processing_time_count UInt64,
+    last_updated DateTime64(3)
 ) ENGINE = ReplacingMergeTree(last_updated)
-ORDER BY company_id;
+PARTITION BY toYYYYMM(window_start)
+ORDER BY (company_id, window_start);
 
--- View for today's summary metrics (removed aggregation since it's handled in materialized view)
-CREATE VIEW IF NOT EXISTS v_today_summary AS
+-- View over company_metrics_summary with success rate and average processing time.
+-- Dashboards read closed hours from here and only the open hour from audit_completions.
+CREATE OR REPLACE VIEW v_company_metrics_summary AS
 SELECT
-    event_count as total_events,
+    window_start,
+    company_id,
+    company_name,
+    total_events,
     total_amount,
-    success_count as success_events,
-    failure_count as failure_events,
-    if(event_count > 0, success_count * 100.0 / event_count, 0) as success_rate,
-    if(event_count > 0, total_amount / event_count, 0) as avg_amount_per_event
-FROM mv_daily_metrics
-WHERE date = today();
+    success_events,
+    failure_events,
+    processing_time_sum_ms,
+    processing_time_count,
+    if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+    if(processing_time_count > 0, processing_time_sum_ms / processing_time_count, 0) as avg_processing_time_ms,
+    last_updated
+FROM company_metrics_summary FINAL;
+
+-- View for today's summary metrics, collapsing replayed rows
+CREATE OR REPLACE VIEW v_today_summary AS
+SELECT
+    count() as total_events,
+    sum(amount) as total_amount,
+    countIf(outcome = 'SUCCESS') as success_events,
+    countIf(outcome = 'FAILURE') as failure_events,
+    if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+    if(total_events > 0, total_amount / total_events, 0) as avg_amount_per_event
+FROM audit_completions FINAL
+WHERE event_date = today();
 
 -- View for recent events (last 100)
-CREATE VIEW IF NOT EXISTS v_recent_events AS
+CREATE OR REPLACE VIEW v_recent_events AS
 SELECT
     event_id,
     audit_id,
@@ -90,4 +86,5 @@ SELECT
     processing_time_ms
 FROM audit_completions
 ORDER BY completed_at DESC
+LIMIT 1 BY event_id
 LIMIT 100;
\ No newline at end of file
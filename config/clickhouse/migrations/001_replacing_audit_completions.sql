@@ -0,0 +1,65 @@
+-- One-off migration for deployments created before audit_completions became a
+-- ReplacingMergeTree. init-schema.sql uses CREATE TABLE IF NOT EXISTS, so it keeps an
+-- existing MergeTree table as it is; this copies the rows into a ReplacingMergeTree
+-- table and swaps the two.
+--
+-- It also drops mv_hourly_metrics and mv_daily_metrics. They summed every insert,
+-- replays included, and the dashboards now read company_metrics_summary instead.
+--
+-- Stop the event processor first: rows inserted between the copy and the swap are lost.
+--   clickhouse-client --queries-file config/clickhouse/migrations/001_replacing_audit_completions.sql
+
+CREATE OR REPLACE VIEW v_today_summary AS
+SELECT
+    count() as total_events,
+    sum(amount) as total_amount,
+    countIf(outcome = 'SUCCESS') as success_events,
+    countIf(outcome = 'FAILURE') as failure_events,
+    if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+    if(total_events > 0, total_amount / total_events, 0) as avg_amount_per_event
+FROM audit_completions
+WHERE event_date = today();
+
+DROP TABLE IF EXISTS mv_hourly_metrics;
+DROP TABLE IF EXISTS mv_daily_metrics;
+
+DROP TABLE IF EXISTS audit_completions_replacing;
+CREATE TABLE audit_completions_replacing (
+    event_id String,
+    audit_id String,
+    batch_id String,
+    company_id String,
+    company_name String,
+    amount Decimal(18,2),
+    status Enum8('COMPLETE' = 1, 'INVALID' = 2),
+    outcome Enum8('SUCCESS' = 1, 'FAILURE' = 2),
+    completed_at DateTime64(3),
+    processing_time_ms UInt32,
+    event_date Date MATERIALIZED toDate(completed_at),
+    event_hour DateTime MATERIALIZED toStartOfHour(completed_at)
+) ENGINE = ReplacingMergeTree()
+PARTITION BY toYYYYMM(event_date)
+ORDER BY (company_id, completed_at, event_id);
+
+INSERT INTO audit_completions_replacing
+SELECT event_id, audit_id, batch_id, company_id, company_name, amount, status, outcome,
+       completed_at, processing_time_ms
+FROM audit_completions;
+
+EXCHANGE TABLES audit_completions AND audit_completions_replacing;
+DROP TABLE audit_completions_replacing;
+
+-- Collapse the duplicates already stored instead of waiting for background merges
+OPTIMIZE TABLE audit_completions FINAL;
+
+-- Now that the table supports FINAL, dedupe the view as init-schema.sql defines it
+CREATE OR REPLACE VIEW v_today_summary AS
+SELECT
+    count() as total_events,
+    sum(amount) as total_amount,
+    countIf(outcome = 'SUCCESS') as success_events,
+    countIf(outcome = 'FAILURE') as failure_events,
+    if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+    if(total_events > 0, total_amount / total_events, 0) as avg_amount_per_event
+FROM audit_completions FINAL
+WHERE event_date = today();
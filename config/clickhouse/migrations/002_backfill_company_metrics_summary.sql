@@ -0,0 +1,33 @@
+-- Superseded by 003_rebuild_company_metrics_summary.sql, which rebuilds every hour from
+-- audit_completions; kept for deployments that already ran it.
+--
+-- One-off migration for deployments that have audit_completions rows from before the
+-- event processor started writing company_metrics_summary. Dashboards read closed hours
+-- from the summary only, so older hours are aggregated into it once.
+--
+-- Only hours before the first window the processor wrote are backfilled, so running this
+-- while the processor is up does not double-count its windows. Run it once, after
+-- 001_replacing_audit_completions.sql:
+--   clickhouse-client --queries-file config/clickhouse/migrations/002_backfill_company_metrics_summary.sql
+
+INSERT INTO company_metrics_summary (
+    window_start, company_id, company_name, total_events, total_amount,
+    success_events, failure_events, processing_time_sum_ms, processing_time_count, last_updated
+)
+SELECT
+    toStartOfHour(completed_at) as window_start,
+    company_id,
+    any(company_name),
+    count(),
+    sum(amount),
+    countIf(outcome = 'SUCCESS'),
+    countIf(outcome = 'FAILURE'),
+    sum(processing_time_ms),
+    count(),
+    now64(3)
+FROM audit_completions FINAL
+WHERE completed_at < (
+    SELECT if(count() > 0, min(window_start), toStartOfHour(now()))
+    FROM company_metrics_summary
+)
+GROUP BY window_start, company_id;
@@ -0,0 +1,62 @@
+-- One-off migration for deployments created while company_metrics_summary was a
+-- SummingMergeTree fed from in-memory windows. Those windows counted replayed events
+-- again and lost their partial sums when the processor stopped, so the table is rebuilt
+-- from audit_completions FINAL as a ReplacingMergeTree the processor now recomputes
+-- windows into. It supersedes 002_backfill_company_metrics_summary.sql.
+--
+-- Run it after 001_replacing_audit_completions.sql and before starting a processor that
+-- writes rollups; windows it recomputes later replace the rows copied here:
+--   clickhouse-client --queries-file config/clickhouse/migrations/003_rebuild_company_metrics_summary.sql
+
+DROP TABLE IF EXISTS company_metrics_summary_replacing;
+CREATE TABLE company_metrics_summary_replacing (
+    window_start DateTime,
+    company_id String,
+    company_name String,
+    total_events UInt64,
+    total_amount Decimal(18,2),
+    success_events UInt64,
+    failure_events UInt64,
+    processing_time_sum_ms UInt64,
+    processing_time_count UInt64,
+    last_updated DateTime64(3)
+) ENGINE = ReplacingMergeTree(last_updated)
+PARTITION BY toYYYYMM(window_start)
+ORDER BY (company_id, window_start);
+
+INSERT INTO company_metrics_summary_replacing (
+    window_start, company_id, company_name, total_events, total_amount,
+    success_events, failure_events, processing_time_sum_ms, processing_time_count, last_updated
+)
+SELECT
+    toDateTime(intDiv(toUnixTimestamp(completed_at), 3600) * 3600) as window_start,
+    company_id,
+    any(company_name),
+    count(),
+    sum(amount),
+    countIf(outcome = 'SUCCESS'),
+    countIf(outcome = 'FAILURE'),
+    sum(processing_time_ms),
+    count(),
+    now64(3)
+FROM audit_completions FINAL
+GROUP BY window_start, company_id;
+
+EXCHANGE TABLES company_metrics_summary AND company_metrics_summary_replacing;
+DROP TABLE company_metrics_summary_replacing;
+
+CREATE OR REPLACE VIEW v_company_metrics_summary AS
+SELECT
+    window_start,
+    company_id,
+    company_name,
+    total_events,
+    total_amount,
+    success_events,
+    failure_events,
+    processing_time_sum_ms,
+    processing_time_count,
+    if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+    if(processing_time_count > 0, processing_time_sum_ms / processing_time_count, 0) as avg_processing_time_ms,
+    last_updated
+FROM company_metrics_summary FINAL;
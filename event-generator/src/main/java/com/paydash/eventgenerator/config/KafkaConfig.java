@@ -19,6 +19,27 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // latency: send immediately, uncompressed; balanced: short linger, lz4;
+    // throughput: long linger and large zstd batches for load and seeding runs
+    @Value("${app.kafka.producer.profile:balanced}")
+    private String producerProfile;
+
+    // Explicit overrides of the profile values; unset (-1 / empty) keeps the profile's
+    @Value("${app.kafka.producer.linger-ms:-1}")
+    private int lingerMs;
+
+    @Value("${app.kafka.producer.batch-size:-1}")
+    private int batchSize;
+
+    @Value("${app.kafka.producer.compression-type:}")
+    private String compressionType;
+
+    @Value("${app.kafka.transactions.enabled:false}")
+    private boolean transactionsEnabled;
+
+    @Value("${app.kafka.transactions.id-prefix:event-generator-tx-}")
+    private String transactionIdPrefix;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -28,11 +49,53 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        applyProducerProfile(configProps);
+
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+        if (transactionsEnabled) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
+    }
+
+    private void applyProducerProfile(Map<String, Object> configProps) {
+        switch (producerProfile) {
+            case "latency" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+            }
+            case "balanced" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            }
+            case "throughput" -> {
+                configProps.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+                configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+                configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+                configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 128L * 1024 * 1024);
+            }
+            default -> throw new IllegalArgumentException(
+                "Unknown app.kafka.producer.profile '" + producerProfile + "' (latency, balanced or throughput)");
+        }
+
+        if (lingerMs >= 0) {
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        }
+        if (batchSize > 0) {
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        }
+        if (!compressionType.isBlank()) {
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        }
     }
 
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory());
+        // Single-record publishing stays available (non-atomically) alongside transactional units
+        template.setAllowNonTransactional(transactionsEnabled);
+        return template;
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.paydash.eventgenerator.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only item metadata: a base map shared by every item of a batch plus the three fields
+ * that differ per item (amount, formatted_amount, item_sequence), which take precedence over
+ * the base. Building a batch's items then costs one base map instead of one copy per item.
+ */
+public final class ItemMetadata extends AbstractMap<String, String> {
+
+    private static final String AMOUNT = "amount";
+    private static final String FORMATTED_AMOUNT = "formatted_amount";
+    private static final String ITEM_SEQUENCE = "item_sequence";
+
+    private final Map<String, String> base;
+    private final String amount;
+    private final String formattedAmount;
+    private final String itemSequence;
+    private final int size;
+
+    public ItemMetadata(Map<String, String> base, String amount, String formattedAmount, String itemSequence) {
+        this.base = base;
+        this.amount = amount;
+        this.formattedAmount = formattedAmount;
+        this.itemSequence = itemSequence;
+        this.size = base.size() +
+            (base.containsKey(AMOUNT) ? 0 : 1) +
+            (base.containsKey(FORMATTED_AMOUNT) ? 0 : 1) +
+            (base.containsKey(ITEM_SEQUENCE) ? 0 : 1);
+    }
+
+    private static boolean isOverlayKey(Object key) {
+        return AMOUNT.equals(key) || FORMATTED_AMOUNT.equals(key) || ITEM_SEQUENCE.equals(key);
+    }
+
+    @Override
+    public String get(Object key) {
+        if (key instanceof String name) {
+            switch (name) {
+                case AMOUNT: return amount;
+                case FORMATTED_AMOUNT: return formattedAmount;
+                case ITEM_SEQUENCE: return itemSequence;
+                default: break;
+            }
+        }
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return isOverlayKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private final Iterator<Entry<String, String>> baseEntries = base.entrySet().iterator();
+        private int overlayIndex;
+        private Entry<String, String> next = advance();
+
+        private Entry<String, String> advance() {
+            while (baseEntries.hasNext()) {
+                Entry<String, String> entry = baseEntries.next();
+                if (!isOverlayKey(entry.getKey())) {
+                    return entry;
+                }
+            }
+            return switch (overlayIndex++) {
+                case 0 -> new SimpleImmutableEntry<>(AMOUNT, amount);
+                case 1 -> new SimpleImmutableEntry<>(FORMATTED_AMOUNT, formattedAmount);
+                case 2 -> new SimpleImmutableEntry<>(ITEM_SEQUENCE, itemSequence);
+                default -> null;
+            };
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, String> current = next;
+            next = advance();
+            return current;
+        }
+    }
+}
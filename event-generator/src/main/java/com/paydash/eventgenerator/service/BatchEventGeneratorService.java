@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +17,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.paydash.eventgenerator.model.BatchEvent;
+import com.paydash.eventgenerator.model.ItemMetadata;
 
 @Service
 public class BatchEventGeneratorService {
@@ -29,6 +31,10 @@ public class BatchEventGeneratorService {
     
     private final Map<String, Map<String, String>> originalMetadataCache = new ConcurrentHashMap<>();
     
+    private static final long LIFECYCLE_TICK_MS = 100;
+    
+    private final TimingWheel<String> lifecycleWheel = new TimingWheel<>(LIFECYCLE_TICK_MS, System.currentTimeMillis());
+    
     private final String[] statuses = {"RECEIVED", "VALIDATING", "ENRICHING", "PROCESSING", "COMPLETE", "INVALID"};
     
     private static final Map<String, List<String>> COMPANIES_BY_REGION = Map.of(
@@ -66,7 +72,22 @@ public class BatchEventGeneratorService {
         )
     );
     
-    private String lastSelectedRegion = "US";
+    private record RegionCurrency(String currency, String symbol) {}
+    
+    private static final RegionCurrency DEFAULT_CURRENCY = new RegionCurrency("USD", "$");
+    
+    private static final Map<String, RegionCurrency> CURRENCY_BY_REGION = Map.of(
+        "US", DEFAULT_CURRENCY,
+        "AU", new RegionCurrency("AUD", "A$"),
+        "UK", new RegionCurrency("GBP", "£")
+    );
+    
+    private static final Map<String, String> INDUSTRY_BY_COMPANY = new ConcurrentHashMap<>();
+    
+    static {
+        COMPANIES_BY_REGION.values().forEach(companies -> 
+            companies.forEach(company -> INDUSTRY_BY_COMPANY.put(company, getIndustryFromCompany(company))));
+    }
     
     @Value("${app.batch.creation.enabled:true}")
     private boolean batchCreationEnabled;
@@ -74,6 +95,21 @@ public class BatchEventGeneratorService {
     @Value("${app.batch.update.enabled:true}")
     private boolean batchUpdateEnabled;
     
+    @Value("${app.batch.dwell.received:20000}")
+    private long receivedDwellMs;
+    
+    @Value("${app.batch.dwell.validating:30000}")
+    private long validatingDwellMs;
+    
+    @Value("${app.batch.dwell.enriching:30000}")
+    private long enrichingDwellMs;
+    
+    @Value("${app.batch.dwell.processing:40000}")
+    private long processingDwellMs;
+    
+    @Value("${app.batch.dwell.jitter:0.25}")
+    private double dwellJitter;
+    
     @Value("${BATCH_SIZE_MIN:2}")
     private int batchSizeMin;
     
@@ -84,63 +120,65 @@ public class BatchEventGeneratorService {
         this.eventPublishingService = eventPublishingService;
     }
     
-    private double generateAmount() {
-        double randomValue = this.random.nextDouble();
+    private double generateAmount(RandomGenerator random) {
+        double randomValue = random.nextDouble();
         
         if (randomValue < 0.70) {
             double mean = 65.0;
             double stdDev = 8.0;
-            double amount = this.random.nextGaussian() * stdDev + mean;
+            double amount = random.nextGaussian() * stdDev + mean;
             return Math.max(50.0, Math.min(80.0, amount));
         } else if (randomValue < 0.90) {
-            return 20.0 + (this.random.nextDouble() * 29.0);
+            return 20.0 + (random.nextDouble() * 29.0);
         } else {
-            return 81.0 + (this.random.nextDouble() * 119.0);
+            return 81.0 + (random.nextDouble() * 119.0);
         }
     }
     
-    private String generateCompanySummary() {
+    private String generateRegion(RandomGenerator random) {
         String[] regions = {"US", "AU", "UK"};
-        String selectedRegion = regions[random.nextInt(regions.length)];
-        
-        List<String> companies = COMPANIES_BY_REGION.get(selectedRegion);
-        String company = companies.get(random.nextInt(companies.size()));
-        
-        lastSelectedRegion = selectedRegion;
-        
-        return company;
+        return regions[random.nextInt(regions.length)];
     }
     
-    private Map<String, String> addCurrencyInfo(String region, double amount) {
-        Map<String, String> currencyInfo = new HashMap<>();
+    private String generateCompanySummary(String region, RandomGenerator random) {
+        List<String> companies = COMPANIES_BY_REGION.get(region);
+        return companies.get(random.nextInt(companies.size()));
+    }
+    
+    private void addCurrencyInfo(Map<String, String> metadata, String region, double amount) {
+        RegionCurrency regionCurrency = CURRENCY_BY_REGION.getOrDefault(region, DEFAULT_CURRENCY);
+        long cents = Math.round(amount * 100);
         
-        switch (region) {
-            case "US" -> {
-                currencyInfo.put("currency", "USD");
-                currencyInfo.put("amount", String.format("%.2f", amount));
-                currencyInfo.put("formatted_amount", String.format("$%.2f", amount));
-            }
-            case "AU" -> {
-                currencyInfo.put("currency", "AUD");
-                currencyInfo.put("amount", String.format("%.2f", amount));
-                currencyInfo.put("formatted_amount", String.format("A$%.2f", amount));
-            }
-            case "UK" -> {
-                currencyInfo.put("currency", "GBP");
-                currencyInfo.put("amount", String.format("%.2f", amount));
-                currencyInfo.put("formatted_amount", String.format("£%.2f", amount));
-            }
-            default -> {
-                currencyInfo.put("currency", "USD");
-                currencyInfo.put("amount", String.format("%.2f", amount));
-                currencyInfo.put("formatted_amount", String.format("$%.2f", amount));
-            }
+        metadata.put("currency", regionCurrency.currency());
+        metadata.put("amount", formatCents(cents));
+        metadata.put("formatted_amount", regionCurrency.symbol() + formatCents(cents));
+    }
+    
+    /**
+     * Same output as {@code String.format("%.2f", cents / 100.0)} without the format parsing.
+     */
+    static String formatCents(long cents) {
+        StringBuilder sb = new StringBuilder(12);
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
         }
-        
-        return currencyInfo;
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
     }
     
-    private Map<String, String> generateEnhancedMetadata() {
+    private static String industryFor(String company) {
+        if (company == null) {
+            return "unknown";
+        }
+        return INDUSTRY_BY_COMPANY.computeIfAbsent(company, BatchEventGeneratorService::getIndustryFromCompany);
+    }
+    
+    private Map<String, String> generateEnhancedMetadata(RandomGenerator random) {
         Map<String, String> metadata = new HashMap<>();
         int recordCount = batchSizeMin + random.nextInt(batchSizeMax - batchSizeMin + 1);
         metadata.put("records", String.valueOf(recordCount));
@@ -148,15 +186,14 @@ public class BatchEventGeneratorService {
         metadata.put("batch", String.valueOf(random.nextInt(1000)));
         metadata.put("priority", random.nextBoolean() ? "high" : "normal");
         
-        double amount = generateAmount();
-        String summary = generateCompanySummary();
-        String region = lastSelectedRegion;
+        double amount = generateAmount(random);
+        String region = generateRegion(random);
+        String summary = generateCompanySummary(region, random);
         
         metadata.put("summary", summary);
         metadata.put("region", region);
         
-        Map<String, String> currencyInfo = addCurrencyInfo(region, amount);
-        metadata.putAll(currencyInfo);
+        addCurrencyInfo(metadata, region, amount);
         
         return metadata;
     }
@@ -168,31 +205,19 @@ public class BatchEventGeneratorService {
         }
         
         try {
-            String objectId = UUID.randomUUID().toString();
             LocalDateTime now = LocalDateTime.now();
-            
-            Map<String, String> metadata = generateEnhancedMetadata();
-            
-            validateBatchMetadata(objectId, metadata);
+            BatchEvent.BatchPayload payload = newBatchPayload(random, now);
+            String objectId = payload.getObjectId();
+            Map<String, String> metadata = payload.getMetadata();
             
             originalMetadataCache.put(objectId, new HashMap<>(metadata));
             
-            BatchEvent.BatchPayload payload = new BatchEvent.BatchPayload(
-                objectId,
-                "batch",
-                "RECEIVED",
-                "-",
-                metadata,
-                now,
-                now
-            );
-            
             BatchEvent event = new BatchEvent("OBJECT_CREATED", now, payload);
             
             activeObjects.put(objectId, payload);
-            eventPublishingService.publishBatchEvent(event);
+            scheduleNextTransition(objectId, payload.getStatus(), System.currentTimeMillis());
             
-            generateItemAuditEvents(payload, "CREATED", "RECEIVED");
+            publishUnit(event, generateItemAuditEvents(payload, "CREATED", "RECEIVED"));
             
             logger.info("Generated new batch object: {} with {} records, amount: {}, company: {}", 
                 objectId, metadata.get("records"), metadata.get("formatted_amount"), metadata.get("summary"));
@@ -202,23 +227,38 @@ public class BatchEventGeneratorService {
         }
     }
     
-    @Scheduled(fixedDelayString = "${app.batch.update.interval:45000}")
+    /**
+     * Advances every batch whose dwell time in its current status has elapsed. Active batches
+     * wait in a timing wheel keyed by their next transition time, so a tick costs O(due)
+     * however many batches are active.
+     */
+    @Scheduled(fixedDelayString = "${app.batch.update.interval:1000}")
     public void updateExistingBatchObject() {
         if (!batchUpdateEnabled || activeObjects.isEmpty()) {
             return;
         }
         
+        List<String> dueObjectIds = new ArrayList<>();
+        synchronized (lifecycleWheel) {
+            lifecycleWheel.advance(System.currentTimeMillis(), dueObjectIds::add);
+        }
+        
+        for (String objectId : dueObjectIds) {
+            advanceBatchObject(objectId);
+        }
+        
+        if (!dueObjectIds.isEmpty()) {
+            logger.info("Advanced {} batch objects ({} active)", dueObjectIds.size(), activeObjects.size());
+        }
+    }
+    
+    private void advanceBatchObject(String selectedObjectId) {
         try {
-            String[] objectIds = activeObjects.keySet().toArray(new String[0]);
-            String selectedObjectId = objectIds[random.nextInt(objectIds.length)];
-            
             BatchEvent.BatchPayload existingPayload = activeObjects.get(selectedObjectId);
             if (existingPayload == null || isTerminalStatus(existingPayload.getStatus())) {
                 return;
             }
             
-            String newStatus = getNextStatus(existingPayload.getStatus());
-            String newOutcome = getOutcomeForStatus(newStatus);
             LocalDateTime now = LocalDateTime.now();
             
             Map<String, String> preservedMetadata = originalMetadataCache.get(selectedObjectId);
@@ -227,24 +267,16 @@ public class BatchEventGeneratorService {
                 preservedMetadata = existingPayload.getMetadata();
             }
             
-            BatchEvent.BatchPayload updatedPayload = new BatchEvent.BatchPayload(
-                existingPayload.getObjectId(),
-                existingPayload.getObjectType(),
-                newStatus,
-                newOutcome,
-                preservedMetadata,
-                existingPayload.getCreated(),
-                now
-            );
+            BatchEvent.BatchPayload updatedPayload = advanceBatchPayload(existingPayload, preservedMetadata, random, now);
+            String newStatus = updatedPayload.getStatus();
             
             BatchEvent event = new BatchEvent("OBJECT_UPDATED", now, updatedPayload);
             
             activeObjects.put(selectedObjectId, updatedPayload);
-            eventPublishingService.publishBatchEvent(event);
             
-            generateItemAuditEvents(updatedPayload, "UPDATED", newStatus);
+            publishUnit(event, generateItemAuditEvents(updatedPayload, "UPDATED", newStatus));
             
-            logger.info("Updated batch object: {} from {} to {} (preserving amount: {}, company: {})", 
+            logger.debug("Updated batch object: {} from {} to {} (preserving amount: {}, company: {})", 
                 selectedObjectId, existingPayload.getStatus(), newStatus,
                 preservedMetadata.get("formatted_amount"), preservedMetadata.get("summary"));
             
@@ -252,14 +284,78 @@ public class BatchEventGeneratorService {
                 originalMetadataCache.remove(selectedObjectId);
                 activeObjects.remove(selectedObjectId);
                 logger.info("Batch object {} reached terminal status: {}", selectedObjectId, newStatus);
+            } else {
+                scheduleNextTransition(selectedObjectId, newStatus, System.currentTimeMillis());
             }
             
         } catch (Exception e) {
-            logger.error("Error updating batch object", e);
+            logger.error("Error updating batch object {}", selectedObjectId, e);
         }
     }
     
-    private String getNextStatus(String currentStatus) {
+    private void scheduleNextTransition(String objectId, String status, long nowMs) {
+        long dwellMs = dwellMillis(status, random);
+        
+        synchronized (lifecycleWheel) {
+            lifecycleWheel.schedule(objectId, nowMs + dwellMs);
+        }
+    }
+    
+    /**
+     * How long a batch stays in {@code status} before its next transition: the configured
+     * dwell time for the status with +/- jitter applied.
+     */
+    long dwellMillis(String status, RandomGenerator random) {
+        long dwellMs = switch (status) {
+            case "RECEIVED" -> receivedDwellMs;
+            case "VALIDATING" -> validatingDwellMs;
+            case "ENRICHING" -> enrichingDwellMs;
+            case "PROCESSING" -> processingDwellMs;
+            default -> 0;
+        };
+        return Math.max(Math.round(dwellMs * (1 + dwellJitter * (2 * random.nextDouble() - 1))), 0);
+    }
+    
+    /**
+     * Builds a new RECEIVED batch with freshly generated metadata, drawing all randomness
+     * from {@code random} so callers on other threads can pass their own generator.
+     */
+    BatchEvent.BatchPayload newBatchPayload(RandomGenerator random, LocalDateTime now) {
+        String objectId = UUID.randomUUID().toString();
+        Map<String, String> metadata = generateEnhancedMetadata(random);
+        
+        validateBatchMetadata(objectId, metadata);
+        
+        return new BatchEvent.BatchPayload(
+            objectId,
+            "batch",
+            "RECEIVED",
+            "-",
+            metadata,
+            now,
+            now
+        );
+    }
+    
+    /**
+     * Moves a batch one step through the status lifecycle, keeping its original metadata.
+     */
+    BatchEvent.BatchPayload advanceBatchPayload(BatchEvent.BatchPayload existingPayload, Map<String, String> metadata,
+                                                RandomGenerator random, LocalDateTime now) {
+        String newStatus = getNextStatus(existingPayload.getStatus(), random);
+        
+        return new BatchEvent.BatchPayload(
+            existingPayload.getObjectId(),
+            existingPayload.getObjectType(),
+            newStatus,
+            getOutcomeForStatus(newStatus),
+            metadata,
+            existingPayload.getCreated(),
+            now
+        );
+    }
+    
+    private String getNextStatus(String currentStatus, RandomGenerator random) {
         return switch (currentStatus) {
             case "RECEIVED" -> "VALIDATING";
             case "VALIDATING" -> random.nextBoolean() ? "INVALID" : "ENRICHING";
@@ -277,99 +373,116 @@ public class BatchEventGeneratorService {
         };
     }
     
-    private boolean isTerminalStatus(String status) {
+    boolean isTerminalStatus(String status) {
         return "INVALID".equals(status) || "COMPLETE".equals(status);
     }
     
-    private List<Double> distributeAmount(double batchAmount, int itemCount) {
-        List<Double> amounts = new ArrayList<>();
-        
-        long totalCents = Math.round(batchAmount * 100);
-        
-        long baseCentsPerItem = totalCents / itemCount;
-        long remainderCents = totalCents % itemCount;
-        
-        for (int i = 0; i < itemCount; i++) {
-            amounts.add(baseCentsPerItem / 100.0);
-        }
-        
-        for (int i = 0; i < remainderCents; i++) {
-            amounts.set(i, amounts.get(i) + 0.01);
-        }
-        
-        return amounts;
+    private void publishUnit(BatchEvent event, List<BatchEvent> itemEvents) {
+        eventPublishingService.publishUnit(event, itemEvents).whenComplete((result, exception) -> {
+            if (exception != null) {
+                logger.error("Failed to publish {} for object {}", event.getEventType(), 
+                    event.getPayload().getObjectId(), exception);
+            } else if (!result.isSuccess()) {
+                logger.error("Failed to publish {} of {} events of {} for object {}", 
+                    result.failed(), result.events(), event.getEventType(), result.objectId(), result.firstError());
+            } else {
+                logger.info("Published {} for object {} with {} item events in {} ms", 
+                    event.getEventType(), result.objectId(), itemEvents.size(), 
+                    String.format("%.1f", result.latencyMs()));
+            }
+        });
     }
     
-    private void generateItemAuditEvents(BatchEvent.BatchPayload batchPayload, String action, String newStatus) {
+    private List<BatchEvent> generateItemAuditEvents(BatchEvent.BatchPayload batchPayload, String action, String newStatus) {
         try {
-            int recordCount = Integer.parseInt(batchPayload.getMetadata().getOrDefault("records", "1"));
-            double batchAmount = Double.parseDouble(batchPayload.getMetadata().getOrDefault("amount", "0.0"));
-            String currency = batchPayload.getMetadata().getOrDefault("currency", "USD");
-            String region = batchPayload.getMetadata().getOrDefault("region", "US");
-            
-            List<Double> itemAmounts = distributeAmount(batchAmount, recordCount);
-            
-            List<BatchEvent> itemEvents = new ArrayList<>();
-            LocalDateTime now = LocalDateTime.now();
+            List<BatchEvent> itemEvents = buildItemAuditEvents(batchPayload, action, newStatus, LocalDateTime.now());
             
-            for (int i = 1; i <= recordCount; i++) {
-                String itemId = String.format("%s-%04d", batchPayload.getObjectId(), i);
-                double itemAmount = itemAmounts.get(i - 1);
-                
-                Map<String, String> itemMetadata = new HashMap<>(batchPayload.getMetadata());
-                
-                itemMetadata.put("amount", String.format("%.2f", itemAmount));
-                itemMetadata.put("records", "1");
-                itemMetadata.put("parent_id", batchPayload.getObjectId());
-                itemMetadata.put("parent_type", "batch");
-                itemMetadata.put("item_sequence", String.valueOf(i));
-                itemMetadata.put("item_count", String.valueOf(recordCount));
-                itemMetadata.put("batch_total", String.format("%.2f", batchAmount));
-                
-                Map<String, String> itemCurrencyInfo = addCurrencyInfo(region, itemAmount);
-                itemMetadata.putAll(itemCurrencyInfo);
-                
-                Map<String, String> batchCurrencyInfo = addCurrencyInfo(region, batchAmount);
-                itemMetadata.put("batch_formatted_total", batchCurrencyInfo.get("formatted_amount"));
-                
-                itemMetadata.put("description", itemMetadata.get("summary"));
-                itemMetadata.put("company", itemMetadata.get("summary"));
-                
-                String industry = getIndustryFromCompany(itemMetadata.get("summary"));
-                itemMetadata.put("industry", industry);
-                
-                BatchEvent.BatchPayload itemPayload = new BatchEvent.BatchPayload(
-                    itemId,
-                    "item",
-                    newStatus,
-                    batchPayload.getOutcome(),
-                    itemMetadata,
-                    batchPayload.getCreated(),
-                    now
-                );
-                
-                BatchEvent itemEvent = new BatchEvent("ITEM_" + action, now, itemPayload);
-                itemEvents.add(itemEvent);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Generated {} item audit events for batch {} with status {} (amounts: {} → total: {})", 
+                    itemEvents.size(), batchPayload.getObjectId(), newStatus, 
+                    itemEvents.stream().map(event -> event.getPayload().getMetadata().get("amount")).toList(), 
+                    batchPayload.getMetadata().get("amount"));
             }
             
-            List<Map<String, String>> itemMetadataList = itemEvents.stream()
-                .map(event -> event.getPayload().getMetadata())
-                .toList();
-            validateItemAmountDistribution(batchPayload.getObjectId(), itemMetadataList, batchAmount);
-            
-            eventPublishingService.publishItemAuditEvents(itemEvents);
-            
-            logger.info("Generated {} item audit events for batch {} with status {} (amounts: {} → total: {})", 
-                recordCount, batchPayload.getObjectId(), newStatus, 
-                itemAmounts.stream().map(a -> String.format("%.2f", a)).toList(), 
-                String.format("%.2f", batchAmount));
+            return itemEvents;
                 
         } catch (Exception e) {
             logger.error("Error generating item audit events for batch {}: {}", 
                 batchPayload.getObjectId(), e.getMessage(), e);
+            return List.of();
         }
     }
     
+    /**
+     * Builds one item event per record of the batch, with the batch amount split across them.
+     * All items share one immutable base map of batch-level fields; only the item amount,
+     * its formatted form and the sequence number are per item.
+     */
+    List<BatchEvent> buildItemAuditEvents(BatchEvent.BatchPayload batchPayload, String action, String newStatus,
+                                          LocalDateTime now) {
+        Map<String, String> batchMetadata = batchPayload.getMetadata();
+        int recordCount = Integer.parseInt(batchMetadata.getOrDefault("records", "1"));
+        long batchCents = Math.round(Double.parseDouble(batchMetadata.getOrDefault("amount", "0.0")) * 100);
+        String region = batchMetadata.getOrDefault("region", "US");
+        RegionCurrency regionCurrency = CURRENCY_BY_REGION.getOrDefault(region, DEFAULT_CURRENCY);
+        String summary = batchMetadata.get("summary");
+        
+        Map<String, String> base = new HashMap<>(batchMetadata);
+        base.put("records", "1");
+        base.put("parent_id", batchPayload.getObjectId());
+        base.put("parent_type", "batch");
+        base.put("item_count", String.valueOf(recordCount));
+        base.put("batch_total", formatCents(batchCents));
+        base.put("currency", regionCurrency.currency());
+        base.put("batch_formatted_total", regionCurrency.symbol() + formatCents(batchCents));
+        if (summary != null) {
+            base.put("description", summary);
+            base.put("company", summary);
+        }
+        base.put("industry", industryFor(summary));
+        Map<String, String> sharedBase = Map.copyOf(base);
+        
+        long baseCentsPerItem = batchCents / recordCount;
+        long remainderCents = batchCents % recordCount;
+        String eventType = "ITEM_" + action;
+        String itemIdPrefix = batchPayload.getObjectId() + "-";
+        
+        List<BatchEvent> itemEvents = new ArrayList<>(recordCount);
+        long distributedCents = 0;
+        
+        for (int i = 1; i <= recordCount; i++) {
+            long itemCents = baseCentsPerItem + (i <= remainderCents ? 1 : 0);
+            distributedCents += itemCents;
+            String itemAmount = formatCents(itemCents);
+            
+            BatchEvent.BatchPayload itemPayload = new BatchEvent.BatchPayload(
+                itemIdPrefix + sequenceNumber(i),
+                "item",
+                newStatus,
+                batchPayload.getOutcome(),
+                new ItemMetadata(sharedBase, itemAmount, regionCurrency.symbol() + itemAmount, String.valueOf(i)),
+                batchPayload.getCreated(),
+                now
+            );
+            
+            itemEvents.add(new BatchEvent(eventType, now, itemPayload));
+        }
+        
+        assert distributedCents == batchCents : 
+            "Item amount sum (" + distributedCents + " cents) does not match batch total (" 
+                + batchCents + " cents) for batch " + batchPayload.getObjectId();
+        
+        return itemEvents;
+    }
+    
+    /**
+     * Zero-padded to four digits like {@code String.format("%04d", sequence)}.
+     */
+    private static String sequenceNumber(int sequence) {
+        String digits = String.valueOf(sequence);
+        return digits.length() >= 4 ? digits : "0000".substring(digits.length()) + digits;
+    }
+    
     private void validateBatchMetadata(String objectId, Map<String, String> metadata) {
         assert metadata.containsKey("amount") : "Batch metadata must contain amount field for " + objectId;
         assert metadata.containsKey("summary") : "Batch metadata must contain summary field for " + objectId;
@@ -384,20 +497,7 @@ public class BatchEventGeneratorService {
         }
     }
     
-    private void validateItemAmountDistribution(String batchId, List<Map<String, String>> itemMetadata, double batchTotal) {
-        double itemSum = itemMetadata.stream()
-            .mapToDouble(meta -> Double.parseDouble(meta.get("amount")))
-            .sum();
-        
-        assert Math.abs(itemSum - batchTotal) < 0.01 : 
-            String.format("Item amount sum (%.2f) does not match batch total (%.2f) for batch %s", 
-                itemSum, batchTotal, batchId);
-        
-        logger.debug("Amount distribution validation passed for batch {}: items sum {} = batch total {}", 
-            batchId, String.format("%.2f", itemSum), String.format("%.2f", batchTotal));
-    }
-
-    private String getIndustryFromCompany(String company) {
+    private static String getIndustryFromCompany(String company) {
         if (company == null) return "unknown";
         
         String companyLower = company.toLowerCase();
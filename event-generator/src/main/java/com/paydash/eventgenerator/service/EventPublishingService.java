@@ -1,37 +1,109 @@
 package com.paydash.eventgenerator.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import com.paydash.eventgenerator.model.BatchEvent;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class EventPublishingService {
     
     private static final Logger logger = LoggerFactory.getLogger(EventPublishingService.class);
     
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TraceRecorder traceRecorder;
     
     @Value("${app.kafka.topic.batch-events:batch-events}")
     private String batchEventsTopic;
     
+    @Value("${app.kafka.topic.audit-events:audit-events}")
+    private String auditEventsTopic;
+    
+    @Value("${app.kafka.route-items-to-audit-topic:true}")
+    private boolean routeItemsToAuditTopic;
+    
+    @Value("${app.kafka.item-key-mode:item}")
+    private String itemKeyMode;
+    
+    @Value("${app.kafka.transactions.enabled:false}")
+    private boolean transactionsEnabled;
+    
+    @Value("${app.kafka.transactions.max-units:500}")
+    private int maxUnitsPerTransaction;
+    
+    @Value("${app.kafka.transactions.max-wait-ms:20}")
+    private long maxTransactionWaitMs;
+    
+    private record PendingUnit(BatchEvent batchEvent, List<BatchEvent> itemEvents, 
+                               CompletableFuture<PublishResult> result, long startNanos) {}
+    
+    private BlockingQueue<PendingUnit> pendingUnits;
+    private Thread transactionThread;
+    private volatile boolean running;
+    
     public EventPublishingService(KafkaTemplate<String, Object> kafkaTemplate) {
+        this(kafkaTemplate, (TraceRecorder) null);
+    }
+    
+    /**
+     * @param traceRecorder present only when app.trace.record.enabled is set
+     */
+    @Autowired
+    public EventPublishingService(KafkaTemplate<String, Object> kafkaTemplate, 
+                                  ObjectProvider<TraceRecorder> traceRecorder) {
+        this(kafkaTemplate, traceRecorder.getIfAvailable());
+    }
+    
+    EventPublishingService(KafkaTemplate<String, Object> kafkaTemplate, TraceRecorder traceRecorder) {
         this.kafkaTemplate = kafkaTemplate;
+        this.traceRecorder = traceRecorder;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!transactionsEnabled) {
+            return;
+        }
+        pendingUnits = new LinkedBlockingQueue<>(maxUnitsPerTransaction * 4);
+        running = true;
+        transactionThread = Thread.ofPlatform()
+            .name("kafka-transactions")
+            .daemon()
+            .start(this::runTransactions);
+        logger.info("Transactional publishing enabled: up to {} units per transaction, {} ms max wait", 
+            maxUnitsPerTransaction, maxTransactionWaitMs);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (transactionThread != null) {
+            transactionThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
     }
     
     public void publishBatchEvent(BatchEvent event) {
         try {
             String key = event.getPayload().getObjectId();
             
-            CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(batchEventsTopic, key, event);
+            CompletableFuture<SendResult<String, Object>> future = send(kafkaTemplate, key, event);
             
             future.whenComplete((result, exception) -> {
                 if (exception == null) {
@@ -62,18 +134,17 @@ public class EventPublishingService {
     
     public void publishItemAuditEvent(BatchEvent event) {
         try {
-            String key = event.getPayload().getObjectId();
+            String key = itemKey(event);
             
-            CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(batchEventsTopic, key, event);
+            CompletableFuture<SendResult<String, Object>> future = send(kafkaTemplate, key, event);
             
             future.whenComplete((result, exception) -> {
                 if (exception == null) {
                     logger.debug("Published item audit event: {} for object: {} to topic: {} at offset: {}",
-                        event.getEventType(), key, batchEventsTopic, result.getRecordMetadata().offset());
+                        event.getEventType(), key, topicFor(event), result.getRecordMetadata().offset());
                 } else {
                     logger.error("Failed to publish item audit event: {} for object: {} to topic: {}",
-                        event.getEventType(), key, batchEventsTopic, exception);
+                        event.getEventType(), key, topicFor(event), exception);
                 }
             });
         } catch (Exception e) {
@@ -81,4 +152,208 @@ public class EventPublishingService {
             throw new RuntimeException("Failed to publish item audit event", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Sends a batch event and all of its item events as one pipelined unit: every record is
+     * handed to the producer up front, so they share producer batches, and the returned
+     * future completes once all of them are acknowledged or failed, with one aggregated
+     * result for the unit instead of a log line per record.
+     * <p>
+     * In transactional mode the unit is instead queued and committed atomically together
+     * with the other units queued at the time, so read-committed consumers see a batch and
+     * all of its items or nothing. Blocks while the queue is full.
+     */
+    public CompletableFuture<PublishResult> publishUnit(BatchEvent batchEvent, List<BatchEvent> itemEvents) {
+        long startNanos = System.nanoTime();
+        if (transactionsEnabled) {
+            return enqueueUnit(batchEvent, itemEvents, startNanos);
+        }
+        
+        String objectId = batchEvent.getPayload().getObjectId();
+        
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(1 + itemEvents.size());
+        sends.add(sendQuietly(batchEvent));
+        for (BatchEvent itemEvent : itemEvents) {
+            sends.add(sendQuietly(itemEvent));
+        }
+        
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+            .handle((ignored, exception) -> {
+                int failed = 0;
+                Throwable firstError = null;
+                for (CompletableFuture<SendResult<String, Object>> send : sends) {
+                    if (send.isCompletedExceptionally()) {
+                        failed++;
+                        if (firstError == null) {
+                            firstError = send.exceptionNow();
+                        }
+                    }
+                }
+                return new PublishResult(objectId, sends.size(), failed, 
+                    (System.nanoTime() - startNanos) / 1e6, firstError);
+            });
+    }
+    
+    private CompletableFuture<PublishResult> enqueueUnit(BatchEvent batchEvent, List<BatchEvent> itemEvents, 
+                                                         long startNanos) {
+        CompletableFuture<PublishResult> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Transactional publisher is not running"));
+            return result;
+        }
+        try {
+            pendingUnits.put(new PendingUnit(batchEvent, itemEvents, result, startNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Drains queued units into transactions: waits for a first unit, then collects more for
+     * up to max-wait-ms or until max-units are gathered, and commits them together.
+     */
+    private void runTransactions() {
+        List<PendingUnit> units = new ArrayList<>(maxUnitsPerTransaction);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxTransactionWaitMs);
+        
+        while (running || !pendingUnits.isEmpty()) {
+            try {
+                PendingUnit first = pendingUnits.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                units.add(first);
+                
+                long deadlineNanos = System.nanoTime() + maxWaitNanos;
+                while (units.size() < maxUnitsPerTransaction) {
+                    PendingUnit next = pendingUnits.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    units.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                pendingUnits.drainTo(units);
+                commitUnits(units);
+                return;
+            }
+            
+            commitUnits(units);
+            units.clear();
+        }
+    }
+    
+    private void commitUnits(List<PendingUnit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        Throwable error = null;
+        try {
+            kafkaTemplate.executeInTransaction(operations -> {
+                for (PendingUnit unit : units) {
+                    sendUnrecorded(operations, unit.batchEvent());
+                    for (BatchEvent itemEvent : unit.itemEvents()) {
+                        sendUnrecorded(operations, itemEvent);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Transaction of {} units aborted", units.size(), e);
+            error = e;
+        }
+        
+        // Only committed units belong in the trace; aborted ones were never visible to consumers
+        if (error == null && traceRecorder != null) {
+            for (PendingUnit unit : units) {
+                traceRecorder.record(keyFor(unit.batchEvent()), unit.batchEvent());
+                for (BatchEvent itemEvent : unit.itemEvents()) {
+                    traceRecorder.record(keyFor(itemEvent), itemEvent);
+                }
+            }
+        }
+        
+        long now = System.nanoTime();
+        for (PendingUnit unit : units) {
+            int events = 1 + unit.itemEvents().size();
+            unit.result().complete(new PublishResult(unit.batchEvent().getPayload().getObjectId(), 
+                events, error == null ? 0 : events, (now - unit.startNanos()) / 1e6, error));
+        }
+    }
+    
+    private CompletableFuture<SendResult<String, Object>> sendQuietly(BatchEvent event) {
+        try {
+            return send(event);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Sends an event without per-event logging and hands back the send future, for callers
+     * such as the load generator that track acknowledgements themselves.
+     */
+    public CompletableFuture<SendResult<String, Object>> send(BatchEvent event) {
+        return send(kafkaTemplate, event);
+    }
+    
+    /**
+     * Sends an event under an explicit key, e.g. one taken from a recorded trace.
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String key, BatchEvent event) {
+        return send(kafkaTemplate, key, event);
+    }
+    
+    private CompletableFuture<SendResult<String, Object>> send(KafkaOperations<String, Object> operations, 
+                                                               BatchEvent event) {
+        return send(operations, keyFor(event), event);
+    }
+    
+    private CompletableFuture<SendResult<String, Object>> send(KafkaOperations<String, Object> operations, 
+                                                               String key, BatchEvent event) {
+        if (traceRecorder != null) {
+            traceRecorder.record(key, event);
+        }
+        return operations.send(topicFor(event), key, event);
+    }
+    
+    private CompletableFuture<SendResult<String, Object>> sendUnrecorded(KafkaOperations<String, Object> operations, 
+                                                                         BatchEvent event) {
+        return operations.send(topicFor(event), keyFor(event), event);
+    }
+    
+    private String keyFor(BatchEvent event) {
+        return "item".equals(event.getPayload().getObjectType()) ? 
+            itemKey(event) : 
+            event.getPayload().getObjectId();
+    }
+    
+    /**
+     * Item events go to the audit-events topic unless routing is turned off, batch-level
+     * events always to batch-events.
+     */
+    private String topicFor(BatchEvent event) {
+        return routeItemsToAuditTopic && "item".equals(event.getPayload().getObjectType()) ? 
+            auditEventsTopic : 
+            batchEventsTopic;
+    }
+    
+    /**
+     * Kafka key for an item event. In "parent" mode items are keyed by their parent batch id,
+     * so a batch and all of its items land on the same partition, in order; otherwise each
+     * item is keyed by its own id.
+     */
+    private String itemKey(BatchEvent event) {
+        if ("parent".equalsIgnoreCase(itemKeyMode) && event.getPayload().getMetadata() != null) {
+            String parentId = event.getPayload().getMetadata().get("parent_id");
+            if (parentId != null) {
+                return parentId;
+            }
+        }
+        return event.getPayload().getObjectId();
+    }
+}
@@ -0,0 +1,239 @@
+package com.paydash.eventgenerator.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.paydash.eventgenerator.model.BatchEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Capacity-testing mode that drives the regular batch/item lifecycle at a target event rate.
+ * The rate is split evenly across lanes, each running on its own virtual thread with its
+ * own SplittableRandom and its own set of in-flight batches, so lanes share nothing but the
+ * Kafka producer. Each batch event is published together with its items as one unit;
+ * achieved send rate and per-unit ack latency are reported periodically.
+ */
+@Service
+public class LoadGeneratorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGeneratorService.class);
+
+    private static final long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final BatchEventGeneratorService generatorService;
+    private final EventPublishingService eventPublishingService;
+
+    @Value("${app.load.enabled:false}")
+    private boolean loadEnabled;
+
+    @Value("${app.load.events-per-second:10000}")
+    private int targetEventsPerSecond;
+
+    @Value("${app.load.concurrency:16}")
+    private int concurrency;
+
+    @Value("${app.load.active-batches-per-lane:64}")
+    private int activeBatchesPerLane;
+
+    @Value("${app.load.duration-seconds:0}")
+    private long durationSeconds;
+
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder eventsAcked = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder unitsAcked = new LongAdder();
+    private final LongAdder ackLatencyNanos = new LongAdder();
+    private final AtomicLong maxAckLatencyNanos = new AtomicLong();
+    private final AtomicInteger runningLanes = new AtomicInteger();
+    private final List<Thread> lanes = new ArrayList<>();
+
+    private volatile boolean running;
+    private long startedAtNanos;
+    private long lastReportNanos;
+    private long lastReportSent;
+    private long lastReportAcked;
+    private long lastReportUnits;
+    private long lastReportLatencyNanos;
+
+    public LoadGeneratorService(BatchEventGeneratorService generatorService,
+                                EventPublishingService eventPublishingService) {
+        this.generatorService = generatorService;
+        this.eventPublishingService = eventPublishingService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!loadEnabled || running) {
+            return;
+        }
+        if (targetEventsPerSecond <= 0 || concurrency <= 0 || activeBatchesPerLane <= 0) {
+            logger.error("Load generation not started: events-per-second, concurrency and " +
+                "active-batches-per-lane must be positive");
+            return;
+        }
+
+        running = true;
+        startedAtNanos = System.nanoTime();
+        lastReportNanos = startedAtNanos;
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * concurrency / targetEventsPerSecond;
+        long deadlineNanos = durationSeconds > 0 ?
+            startedAtNanos + TimeUnit.SECONDS.toNanos(durationSeconds) :
+            Long.MAX_VALUE;
+
+        SplittableRandom seed = new SplittableRandom();
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = seed.split();
+            runningLanes.incrementAndGet();
+            lanes.add(Thread.ofVirtual()
+                .name("load-lane-" + i)
+                .start(() -> runLane(random, intervalNanos, deadlineNanos)));
+        }
+
+        logger.info("Load generation started: target {} events/s across {} lanes, {} active batches per lane{}",
+            targetEventsPerSecond, concurrency, activeBatchesPerLane,
+            durationSeconds > 0 ? ", for " + durationSeconds + "s" : "");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread lane : lanes) {
+            lane.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void runLane(SplittableRandom random, long intervalNanos, long deadlineNanos) {
+        List<BatchEvent.BatchPayload> active = new ArrayList<>(activeBatchesPerLane);
+        long nextSendNanos = System.nanoTime();
+
+        try {
+            while (running && System.nanoTime() < deadlineNanos) {
+                int sent;
+                try {
+                    sent = step(active, random);
+                } catch (Exception e) {
+                    logger.error("Load lane step failed", e);
+                    sent = 1;
+                }
+
+                nextSendNanos += sent * intervalNanos;
+                long waitNanos = nextSendNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                } else if (waitNanos < -MAX_LAG_NANOS) {
+                    nextSendNanos = System.nanoTime();
+                }
+            }
+        } finally {
+            if (runningLanes.decrementAndGet() == 0) {
+                logger.info("Load generation finished: {}", summary());
+            }
+        }
+    }
+
+    /**
+     * Creates a batch or moves one of the lane's batches a step forward, publishing the
+     * batch event and its item events. Returns the number of events sent.
+     */
+    private int step(List<BatchEvent.BatchPayload> active, SplittableRandom random) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (active.isEmpty() || (active.size() < activeBatchesPerLane && random.nextInt(5) == 0)) {
+            BatchEvent.BatchPayload payload = generatorService.newBatchPayload(random, now);
+            active.add(payload);
+            return publish(new BatchEvent("OBJECT_CREATED", now, payload),
+                           generatorService.buildItemAuditEvents(payload, "CREATED", "RECEIVED", now));
+        }
+
+        int index = random.nextInt(active.size());
+        BatchEvent.BatchPayload existing = active.get(index);
+        BatchEvent.BatchPayload updated = generatorService.advanceBatchPayload(
+            existing, existing.getMetadata(), random, now);
+
+        if (generatorService.isTerminalStatus(updated.getStatus())) {
+            BatchEvent.BatchPayload last = active.remove(active.size() - 1);
+            if (index < active.size()) {
+                active.set(index, last);
+            }
+        } else {
+            active.set(index, updated);
+        }
+
+        return publish(new BatchEvent("OBJECT_UPDATED", now, updated),
+                       generatorService.buildItemAuditEvents(updated, "UPDATED", updated.getStatus(), now));
+    }
+
+    private int publish(BatchEvent batchEvent, List<BatchEvent> itemEvents) {
+        int events = 1 + itemEvents.size();
+        eventsSent.add(events);
+        eventPublishingService.publishUnit(batchEvent, itemEvents).whenComplete((result, exception) -> {
+            if (exception != null) {
+                sendErrors.add(events);
+                return;
+            }
+            long latencyNanos = Math.round(result.latencyMs() * 1e6);
+            eventsAcked.add(result.events() - result.failed());
+            sendErrors.add(result.failed());
+            unitsAcked.increment();
+            ackLatencyNanos.add(latencyNanos);
+            maxAckLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        });
+        return events;
+    }
+
+    @Scheduled(fixedDelayString = "${app.load.report-interval-ms:5000}")
+    public synchronized void reportStats() {
+        if (!running || runningLanes.get() == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long sent = eventsSent.sum();
+        long acked = eventsAcked.sum();
+        long units = unitsAcked.sum();
+        long latencyNanos = ackLatencyNanos.sum();
+        double elapsedSeconds = (now - lastReportNanos) / 1e9;
+        long unitsDelta = units - lastReportUnits;
+
+        logger.info("Load generation: target {} events/s, sent {} events/s, acked {} events/s, " +
+                "unit ack latency avg {} ms max {} ms, in flight {}, errors {}",
+            targetEventsPerSecond,
+            Math.round((sent - lastReportSent) / elapsedSeconds),
+            Math.round((acked - lastReportAcked) / elapsedSeconds),
+            String.format("%.2f", unitsDelta > 0 ? (latencyNanos - lastReportLatencyNanos) / 1e6 / unitsDelta : 0.0),
+            String.format("%.2f", maxAckLatencyNanos.getAndSet(0) / 1e6),
+            sent - acked - sendErrors.sum(),
+            sendErrors.sum());
+
+        lastReportNanos = now;
+        lastReportSent = sent;
+        lastReportAcked = acked;
+        lastReportUnits = units;
+        lastReportLatencyNanos = latencyNanos;
+    }
+
+    private String summary() {
+        double elapsedSeconds = (System.nanoTime() - startedAtNanos) / 1e9;
+        long units = unitsAcked.sum();
+        return String.format("%d events sent in %.1fs (%.0f events/s), %d acked, avg unit ack latency %.2f ms, %d errors",
+            eventsSent.sum(), elapsedSeconds, eventsSent.sum() / elapsedSeconds, eventsAcked.sum(),
+            units > 0 ? ackLatencyNanos.sum() / 1e6 / units : 0.0, sendErrors.sum());
+    }
+}
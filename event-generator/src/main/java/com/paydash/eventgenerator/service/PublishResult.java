@@ -0,0 +1,17 @@
+package com.paydash.eventgenerator.service;
+
+/**
+ * Outcome of publishing one batch event together with its item events.
+ *
+ * @param objectId   the batch object id
+ * @param events     records sent in the unit (batch event plus items)
+ * @param failed     records whose send failed
+ * @param latencyMs  time from the first send until every record was acknowledged or failed
+ * @param firstError the first failure, or null if every record was acknowledged
+ */
+public record PublishResult(String objectId, int events, int failed, double latencyMs, Throwable firstError) {
+    
+    public boolean isSuccess() {
+        return failed == 0;
+    }
+}
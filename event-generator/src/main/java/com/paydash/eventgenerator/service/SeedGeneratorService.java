@@ -0,0 +1,236 @@
+package com.paydash.eventgenerator.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.paydash.eventgenerator.model.BatchEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk-seeds history: simulates the regular batch lifecycle over the last N days, with
+ * batch arrivals following a diurnal/weekly curve and status transitions spaced by the
+ * configured dwell times, and publishes every event stamped with its simulated time as
+ * fast as the producer accepts it. Transitions wait in a {@link TimingWheel} on the
+ * simulated clock, so events go out in (near) event-time order.
+ */
+@Service
+public class SeedGeneratorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedGeneratorService.class);
+
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long SIMULATION_TICK_MS = 1000;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long DRAIN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+
+    // Relative batch arrivals per local hour of day: quiet overnight, peaking late morning
+    // and mid-afternoon
+    private static final double[] HOURLY_WEIGHTS = {
+        0.20, 0.15, 0.10, 0.10, 0.10, 0.20, 0.40, 0.80, 1.30, 1.70, 1.90, 1.80,
+        1.50, 1.70, 1.80, 1.70, 1.50, 1.20, 0.90, 0.70, 0.50, 0.40, 0.30, 0.25
+    };
+    private static final double HOURLY_WEIGHT_SUM = Arrays.stream(HOURLY_WEIGHTS).sum();
+    private static final double WEEKEND_FACTOR = 0.35;
+
+    private record PendingTransition(BatchEvent.BatchPayload payload, long dueMs) {}
+
+    private final BatchEventGeneratorService generatorService;
+    private final EventPublishingService eventPublishingService;
+
+    @Value("${app.seed.enabled:false}")
+    private boolean seedEnabled;
+
+    @Value("${app.seed.days:90}")
+    private int days;
+
+    @Value("${app.seed.batches-per-day:2000}")
+    private int batchesPerDay;
+
+    @Value("${app.seed.dwell-scale:1.0}")
+    private double dwellScale;
+
+    @Value("${app.seed.random-seed:0}")
+    private long randomSeed;
+
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder eventsAcked = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+
+    private volatile boolean running;
+    private Thread seedThread;
+    private long batchesCreated;
+
+    public SeedGeneratorService(BatchEventGeneratorService generatorService,
+                                EventPublishingService eventPublishingService) {
+        this.generatorService = generatorService;
+        this.eventPublishingService = eventPublishingService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!seedEnabled || running) {
+            return;
+        }
+        if (days <= 0 || batchesPerDay <= 0 || dwellScale < 0) {
+            logger.error("Seeding not started: days and batches-per-day must be positive, dwell-scale non-negative");
+            return;
+        }
+        running = true;
+        seedThread = Thread.ofPlatform()
+            .name("seed-generator")
+            .start(this::seed);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (seedThread != null) {
+            seedThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void seed() {
+        long endMs = System.currentTimeMillis();
+        long startMs = endMs - TimeUnit.DAYS.toMillis(days);
+        SplittableRandom random = randomSeed != 0 ? new SplittableRandom(randomSeed) : new SplittableRandom();
+        TimingWheel<PendingTransition> transitions = new TimingWheel<>(SIMULATION_TICK_MS, startMs);
+
+        logger.info("Seeding {} days of history from {} at ~{} batches per weekday",
+            days, toLocal(startMs), batchesPerDay);
+
+        long startNanos = System.nanoTime();
+        long nextProgressNanos = startNanos + PROGRESS_INTERVAL_NANOS;
+
+        try {
+            for (long hourMs = startMs; hourMs < endMs && running; hourMs += HOUR_MS) {
+                long hourEndMs = Math.min(hourMs + HOUR_MS, endMs);
+                long[] arrivals = arrivalsInHour(hourMs, hourEndMs, random);
+
+                for (long createdMs : arrivals) {
+                    transitions.advance(createdMs, pending -> advance(pending, transitions, random));
+                    create(createdMs, transitions, random);
+                }
+                transitions.advance(hourEndMs, pending -> advance(pending, transitions, random));
+
+                long now = System.nanoTime();
+                if (now >= nextProgressNanos) {
+                    reportProgress(startMs, endMs, hourEndMs, startNanos, now);
+                    nextProgressNanos = now + PROGRESS_INTERVAL_NANOS;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Seeding failed", e);
+        } finally {
+            running = false;
+        }
+
+        awaitAcks();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        logger.info("Seeding finished: {} batches, {} events in {}s ({} events/s), {} acked, {} errors, " +
+                "{} batches left in flight at the end of the range",
+            batchesCreated, eventsSent.sum(), String.format("%.1f", elapsedSeconds),
+            Math.round(eventsSent.sum() / elapsedSeconds), eventsAcked.sum(), sendErrors.sum(), transitions.size());
+    }
+
+    /**
+     * Sorted creation times for the hour, with the expected count scaled by the hour's
+     * weight and by {@link #WEEKEND_FACTOR} on Saturdays and Sundays.
+     */
+    private long[] arrivalsInHour(long hourMs, long hourEndMs, SplittableRandom random) {
+        LocalDateTime hour = toLocal(hourMs);
+        DayOfWeek day = hour.getDayOfWeek();
+        double expected = batchesPerDay * HOURLY_WEIGHTS[hour.getHour()] / HOURLY_WEIGHT_SUM *
+            (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY ? WEEKEND_FACTOR : 1.0) *
+            (hourEndMs - hourMs) / HOUR_MS;
+
+        int count = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+        long[] arrivals = new long[count];
+        for (int i = 0; i < count; i++) {
+            arrivals[i] = random.nextLong(hourMs, hourEndMs);
+        }
+        Arrays.sort(arrivals);
+        return arrivals;
+    }
+
+    private void create(long createdMs, TimingWheel<PendingTransition> transitions, SplittableRandom random) {
+        LocalDateTime created = toLocal(createdMs);
+        BatchEvent.BatchPayload payload = generatorService.newBatchPayload(random, created);
+        batchesCreated++;
+
+        publish(new BatchEvent("OBJECT_CREATED", created, payload),
+                generatorService.buildItemAuditEvents(payload, "CREATED", "RECEIVED", created));
+        scheduleNext(payload, createdMs, transitions, random);
+    }
+
+    private void advance(PendingTransition pending, TimingWheel<PendingTransition> transitions,
+                         SplittableRandom random) {
+        BatchEvent.BatchPayload existing = pending.payload();
+        LocalDateTime updated = toLocal(pending.dueMs());
+        BatchEvent.BatchPayload next = generatorService.advanceBatchPayload(
+            existing, existing.getMetadata(), random, updated);
+
+        publish(new BatchEvent("OBJECT_UPDATED", updated, next),
+                generatorService.buildItemAuditEvents(next, "UPDATED", next.getStatus(), updated));
+        if (!generatorService.isTerminalStatus(next.getStatus())) {
+            scheduleNext(next, pending.dueMs(), transitions, random);
+        }
+    }
+
+    private void scheduleNext(BatchEvent.BatchPayload payload, long nowMs,
+                              TimingWheel<PendingTransition> transitions, SplittableRandom random) {
+        long dueMs = nowMs + Math.round(generatorService.dwellMillis(payload.getStatus(), random) * dwellScale);
+        transitions.schedule(new PendingTransition(payload, dueMs), dueMs);
+    }
+
+    private void publish(BatchEvent batchEvent, List<BatchEvent> itemEvents) {
+        eventsSent.add(1 + itemEvents.size());
+        eventPublishingService.publishUnit(batchEvent, itemEvents).whenComplete((result, exception) -> {
+            if (exception != null) {
+                sendErrors.add(1 + itemEvents.size());
+                return;
+            }
+            eventsAcked.add(result.events() - result.failed());
+            sendErrors.add(result.failed());
+        });
+    }
+
+    private void reportProgress(long startMs, long endMs, long simulatedMs, long startNanos, long now) {
+        double done = (double) (simulatedMs - startMs) / (endMs - startMs);
+        double elapsedSeconds = (now - startNanos) / 1e9;
+        logger.info("Seeding: reached {} ({}%), {} batches, {} events ({} events/s), {} errors, ETA {}s",
+            toLocal(simulatedMs).withNano(0), Math.round(done * 100), batchesCreated, eventsSent.sum(),
+            Math.round(eventsSent.sum() / elapsedSeconds), sendErrors.sum(),
+            done > 0 ? Math.round(elapsedSeconds * (1 - done) / done) : "-");
+    }
+
+    private void awaitAcks() {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (eventsAcked.sum() + sendErrors.sum() < eventsSent.sum() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static LocalDateTime toLocal(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,133 @@
+package com.paydash.eventgenerator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, where a slot at level {@code l} spans
+ * 64^l ticks. Items are filed by due tick, and each level's slot is cascaded down as time
+ * reaches it, so scheduling is O(1) and advancing costs O(elapsed ticks + items moved)
+ * regardless of how many items are waiting. Due times beyond the top level are parked in
+ * its furthest slot and re-filed when it cascades.
+ * <p>
+ * Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private record Entry<T>(T item, long dueTick) {}
+
+    private final long tickMs;
+    private final List<Entry<T>>[][] wheels;
+    private List<Entry<T>> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, long startMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be positive");
+        }
+        this.tickMs = tickMs;
+        this.wheels = new List[LEVELS][SLOTS];
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    public void schedule(T item, long dueAtMs) {
+        file(new Entry<>(item, Math.ceilDiv(dueAtMs, tickMs)), false);
+        size++;
+    }
+
+    /**
+     * Moves time forward to {@code nowMs}, handing every item that has become due to
+     * {@code dueItems} in due order (items due in the same tick in no particular order).
+     * Items scheduled from inside the callback for a time already reached are delivered on
+     * the next call.
+     */
+    public void advance(long nowMs, Consumer<T> dueItems) {
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+
+        if (!overdue.isEmpty()) {
+            List<Entry<T>> ready = overdue;
+            overdue = new ArrayList<>();
+            deliver(ready, dueItems);
+        }
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            List<Entry<T>> due = wheels[0][slot];
+            if (due != null && !due.isEmpty()) {
+                wheels[0][slot] = null;
+                deliver(due, dueItems);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    private void deliver(List<Entry<T>> entries, Consumer<T> dueItems) {
+        size -= entries.size();
+        for (Entry<T> entry : entries) {
+            dueItems.accept(entry.item());
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        List<Entry<T>> entries = wheels[level][slot];
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        wheels[level][slot] = null;
+        for (Entry<T> entry : entries) {
+            file(entry, true);
+        }
+    }
+
+    /**
+     * Files an entry by its distance from the current tick. While cascading, entries due in
+     * the current tick go to the level-0 slot that is about to be drained; newly scheduled
+     * ones that are already due wait for the next {@link #advance}.
+     */
+    private void file(Entry<T> entry, boolean cascading) {
+        long delta = entry.dueTick() - currentTick;
+        if (delta < 0 || (delta == 0 && !cascading)) {
+            overdue.add(entry);
+            return;
+        }
+
+        long placementTick = delta > MAX_DELTA ? currentTick + MAX_DELTA : entry.dueTick();
+        long placementDelta = placementTick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && placementDelta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+
+        int slot = (int) ((placementTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        List<Entry<T>> entries = wheels[level][slot];
+        if (entries == null) {
+            entries = new ArrayList<>();
+            wheels[level][slot] = entries;
+        }
+        entries.add(entry);
+    }
+}
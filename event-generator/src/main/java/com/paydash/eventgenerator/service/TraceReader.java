@@ -0,0 +1,138 @@
+package com.paydash.eventgenerator.service;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sequential reader for files written by {@link TraceWriter}. The file is memory-mapped in
+ * windows (64 MB by default) that slide forward as records are consumed, so traces larger
+ * than a single mapping can be read without copying through a stream buffer.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TraceReader implements Closeable {
+
+    private static final int DEFAULT_WINDOW_BYTES = 64 << 20;
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    /**
+     * One trace record; {@code offsetNanos} is the time since the first record.
+     */
+    public record TraceRecord(long offsetNanos, String key, byte[] value) {}
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long offsetNanos;
+
+    public TraceReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_BYTES);
+    }
+
+    TraceReader(Path path, int windowBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+
+        try {
+            map(0, TraceWriter.MAGIC.length);
+            byte[] magic = new byte[TraceWriter.MAGIC.length];
+            ensure(magic.length);
+            window.get(magic);
+            if (!Arrays.equals(magic, TraceWriter.MAGIC)) {
+                throw new IOException("Not a trace file: " + path);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the next record, or null at the end of the file.
+     *
+     * @throws EOFException if the file ends part-way through a record
+     */
+    public TraceRecord next() throws IOException {
+        if (position() >= size) {
+            return null;
+        }
+
+        ensure((int) Math.min(MAX_VARLONG_BYTES, size - position()));
+        offsetNanos += readVarLong();
+
+        String key = new String(readBytes(), StandardCharsets.UTF_8);
+        byte[] value = readBytes();
+        return new TraceRecord(offsetNanos, key, value);
+    }
+
+    public long position() {
+        return windowStart + window.position();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] readBytes() throws IOException {
+        ensure((int) Math.min(MAX_VARLONG_BYTES, size - position()));
+        long length = readVarLong();
+        if (length > size - position()) {
+            throw new EOFException("Truncated trace record at byte " + position());
+        }
+        byte[] bytes = new byte[(int) length];
+        ensure(bytes.length);
+        window.get(bytes);
+        return bytes;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!window.hasRemaining()) {
+                throw new EOFException("Truncated trace record at byte " + position());
+            }
+            byte b = window.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at byte " + position());
+    }
+
+    /**
+     * Makes sure the next {@code bytes} bytes are inside the current window, remapping from
+     * the current position if not.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (window.remaining() >= bytes) {
+            return;
+        }
+        long position = position();
+        if (size - position < bytes) {
+            throw new EOFException("Truncated trace record at byte " + position);
+        }
+        map(position, bytes);
+    }
+
+    private void map(long position, int minBytes) throws IOException {
+        long length = Math.min(size - position, Math.max(windowBytes, minBytes));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowStart = position;
+    }
+}
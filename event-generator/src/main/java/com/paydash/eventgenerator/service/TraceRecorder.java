@@ -0,0 +1,100 @@
+package com.paydash.eventgenerator.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventgenerator.model.BatchEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Records every event handed to the producer, with its key and send time, to a trace file
+ * that {@link TraceReplayService} can replay. Only created when app.trace.record.enabled is
+ * set, so publishing takes no lock at all when recording is off. Appends are serialized with
+ * a {@link ReentrantLock} rather than {@code synchronized}, which would pin the carrier
+ * threads of the load generator's virtual threads.
+ */
+@Component
+@ConditionalOnProperty(name = "app.trace.record.enabled", havingValue = "true")
+public class TraceRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecorder.class);
+
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${app.trace.record.path:event-trace.bin}")
+    private String recordPath;
+
+    private TraceWriter writer;
+
+    public TraceRecorder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        lock.lock();
+        try {
+            writer = new TraceWriter(Path.of(recordPath));
+            logger.info("Recording published events to {}", recordPath);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void record(String key, BatchEvent event) {
+        byte[] value;
+        try {
+            value = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            logger.error("Failed to serialize event {} for object {}, not recorded", event.getEventType(), key, e);
+            return;
+        }
+        
+        lock.lock();
+        try {
+            if (writer == null) {
+                return;
+            }
+            writer.append(System.nanoTime(), key, value);
+        } catch (IOException e) {
+            logger.error("Failed to record event {} for object {}, recording stopped",
+                event.getEventType(), key, e);
+            closeQuietly();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            if (writer != null) {
+                logger.info("Recorded {} events to {}", writer.getRecordCount(), recordPath);
+                closeQuietly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Error closing trace file {}", recordPath, e);
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.paydash.eventgenerator.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventgenerator.model.BatchEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Replays a trace recorded by {@link TraceRecorder}: the same events, with the same keys,
+ * in the same order, with the recorded gaps scaled by app.trace.replay.speed (1 = real time,
+ * N = N times faster, 0 = as fast as the producer accepts them). No generator logic runs in
+ * the loop, so every replay of a trace is an identical workload.
+ * <p>
+ * The processor derives event ids from event content, so events replayed unchanged are
+ * dropped as duplicates, collapsed or skipped as stale by stores that already ingested the
+ * trace. By default every event's timestamp, created and updated are therefore shifted by
+ * the time between the first recorded event and the start of the replay, which makes each
+ * replay new traffic with the recorded shape. With app.trace.replay.shift-times=false the
+ * recorded times are kept, and the stores must be reset before a replay.
+ */
+@Service
+public class TraceReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceReplayService.class);
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventPublishingService eventPublishingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.trace.replay.enabled:false}")
+    private boolean replayEnabled;
+
+    @Value("${app.trace.replay.path:event-trace.bin}")
+    private String replayPath;
+
+    @Value("${app.trace.replay.speed:1.0}")
+    private double speed;
+
+    @Value("${app.trace.replay.shift-times:true}")
+    private boolean shiftTimes;
+
+    private final LongAdder eventsAcked = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+
+    private volatile boolean running;
+    private Thread replayThread;
+
+    public TraceReplayService(EventPublishingService eventPublishingService, ObjectMapper objectMapper) {
+        this.eventPublishingService = eventPublishingService;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!replayEnabled || running) {
+            return;
+        }
+        if (speed < 0) {
+            logger.error("Trace replay not started: speed must be 0 (unthrottled) or positive");
+            return;
+        }
+        running = true;
+        replayThread = Thread.ofPlatform()
+            .name("trace-replay")
+            .start(this::replay);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (replayThread != null) {
+            replayThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void replay() {
+        logger.info("Replaying trace {} at {}", replayPath, speed > 0 ? speed + "x" : "maximum speed");
+        if (!shiftTimes) {
+            logger.warn("Replaying with the recorded event times: reset Redis, Cassandra and ClickHouse and " +
+                "restart the processor first, or events it already ingested are dropped as duplicates");
+        }
+
+        long sent = 0;
+        long recordedNanos = 0;
+        long startNanos = System.nanoTime();
+        long nextProgressNanos = startNanos + PROGRESS_INTERVAL_NANOS;
+        Duration shift = null;
+
+        try (TraceReader reader = new TraceReader(Path.of(replayPath))) {
+            TraceReader.TraceRecord record;
+            while (running && (record = reader.next()) != null) {
+                recordedNanos = record.offsetNanos();
+                if (speed > 0) {
+                    long dueNanos = startNanos + (long) (recordedNanos / speed);
+                    long waitNanos;
+                    while (running && (waitNanos = dueNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(Math.min(waitNanos, MAX_PARK_NANOS));
+                    }
+                }
+
+                BatchEvent event = objectMapper.readValue(record.value(), BatchEvent.class);
+                if (shiftTimes) {
+                    if (shift == null) {
+                        shift = timeShift(event, LocalDateTime.now());
+                        logger.info("Shifting recorded event times by {}", shift);
+                    }
+                    shiftTimes(event, shift);
+                }
+                try {
+                    eventPublishingService.send(record.key(), event).whenComplete((result, exception) -> {
+                        if (exception == null) {
+                            eventsAcked.increment();
+                        } else {
+                            sendErrors.increment();
+                        }
+                    });
+                } catch (Exception e) {
+                    logger.error("Failed to replay {} for object {}", event.getEventType(), record.key(), e);
+                    sendErrors.increment();
+                }
+                sent++;
+
+                long now = System.nanoTime();
+                if (now >= nextProgressNanos) {
+                    logger.info("Trace replay: {} events sent ({}%), {} events/s, {} acked, {} errors",
+                        sent, 100 * reader.position() / reader.size(),
+                        Math.round(sent / ((now - startNanos) / 1e9)), eventsAcked.sum(), sendErrors.sum());
+                    nextProgressNanos = now + PROGRESS_INTERVAL_NANOS;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Trace replay of {} stopped after {} events", replayPath, sent, e);
+        } finally {
+            running = false;
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        logger.info("Trace replay finished: {} events in {}s ({} events/s) covering {}s of recording, " +
+                "{} acked, {} errors",
+            sent, String.format("%.1f", elapsedSeconds), Math.round(sent / elapsedSeconds),
+            String.format("%.1f", recordedNanos / 1e9), eventsAcked.sum(), sendErrors.sum());
+    }
+
+    /**
+     * Whole seconds from the first recorded event to {@code replayStart}; event times have
+     * second resolution, so a whole-second shift keeps the recorded ordering exact.
+     */
+    static Duration timeShift(BatchEvent firstEvent, LocalDateTime replayStart) {
+        LocalDateTime recordedStart = firstEvent.getTimestamp() != null ?
+            firstEvent.getTimestamp() : firstEvent.getPayload().getUpdated();
+        if (recordedStart == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofSeconds(Duration.between(recordedStart, replayStart).getSeconds());
+    }
+
+    static void shiftTimes(BatchEvent event, Duration shift) {
+        if (event.getTimestamp() != null) {
+            event.setTimestamp(event.getTimestamp().plus(shift));
+        }
+        BatchEvent.BatchPayload payload = event.getPayload();
+        if (payload != null) {
+            if (payload.getCreated() != null) {
+                payload.setCreated(payload.getCreated().plus(shift));
+            }
+            if (payload.getUpdated() != null) {
+                payload.setUpdated(payload.getUpdated().plus(shift));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.paydash.eventgenerator.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Appends published records to a trace file. After an 8-byte header each record is
+ * varint(nanos since previous record), varint(key length), key bytes (UTF-8),
+ * varint(value length), value bytes, so a typical record costs a few bytes over its payload.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TraceWriter implements Closeable {
+
+    static final byte[] MAGIC = {'P', 'D', 'T', 'R', 'A', 'C', 'E', 1};
+
+    private final OutputStream out;
+    private long lastNanos;
+    private boolean first = true;
+    private long records;
+
+    public TraceWriter(Path path) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        out.write(MAGIC);
+    }
+
+    public void append(long nanos, String key, byte[] value) throws IOException {
+        long delta = first ? 0 : Math.max(0, nanos - lastNanos);
+        first = false;
+        lastNanos = nanos;
+
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        writeVarLong(delta);
+        writeVarLong(keyBytes.length);
+        out.write(keyBytes);
+        writeVarLong(value.length);
+        out.write(value);
+        records++;
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
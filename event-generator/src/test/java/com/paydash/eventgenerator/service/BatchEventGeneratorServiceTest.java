@@ -1,11 +1,21 @@
 package com.paydash.eventgenerator.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.paydash.eventgenerator.model.BatchEvent;
 
 @SpringBootTest
 class BatchEventGeneratorServiceTest {
@@ -30,4 +40,43 @@ class BatchEventGeneratorServiceTest {
     void shouldHaveEventPublishingService() {
         assertNotNull(eventPublishingService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSplitBatchAmountAcrossItemsSharingBatchMetadata() {
+        ReflectionTestUtils.setField(batchEventGeneratorService, "batchSizeMin", 7);
+        ReflectionTestUtils.setField(batchEventGeneratorService, "batchSizeMax", 7);
+        LocalDateTime now = LocalDateTime.now();
+        BatchEvent.BatchPayload batch = batchEventGeneratorService.newBatchPayload(new Random(7), now);
+        Map<String, String> batchMetadata = batch.getMetadata();
+
+        List<BatchEvent> items = batchEventGeneratorService.buildItemAuditEvents(batch, "CREATED", "RECEIVED", now);
+
+        assertEquals(7, items.size());
+        long totalCents = 0;
+        for (int i = 0; i < items.size(); i++) {
+            BatchEvent.BatchPayload item = items.get(i).getPayload();
+            Map<String, String> metadata = item.getMetadata();
+            String amount = metadata.get("amount");
+            totalCents += Math.round(Double.parseDouble(amount) * 100);
+
+            assertEquals(String.format("%s-%04d", batch.getObjectId(), i + 1), item.getObjectId());
+            assertEquals(String.valueOf(i + 1), metadata.get("item_sequence"));
+            assertEquals(batchMetadata.get("formatted_amount").replace(batchMetadata.get("amount"), amount),
+                         metadata.get("formatted_amount"));
+            assertEquals(batch.getObjectId(), metadata.get("parent_id"));
+            assertEquals(batchMetadata.get("summary"), metadata.get("company"));
+            assertEquals(batchMetadata.get("formatted_amount"), metadata.get("batch_formatted_total"));
+            assertEquals("1", metadata.get("records"));
+            assertEquals(18, metadata.size());
+            assertEquals(18, metadata.entrySet().stream().count());
+        }
+        assertEquals(Math.round(Double.parseDouble(batchMetadata.get("amount")) * 100), totalCents);
+    }
+
+    @Test
+    void shouldFormatCentsLikeStringFormat() {
+        for (long cents : new long[] {0, 5, 10, 99, 100, 6542, 123456789}) {
+            assertEquals(String.format("%.2f", cents / 100.0), BatchEventGeneratorService.formatCents(cents));
+        }
+    }
+}
@@ -2,18 +2,30 @@ package com.paydash.eventgenerator.service;
 
 import com.paydash.eventgenerator.model.BatchEvent;
 import com.paydash.eventgenerator.model.BatchEvent.BatchPayload;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -23,12 +35,24 @@ class EventPublishingServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Mock
+    private KafkaOperations<String, Object> transactionOperations;
+
     private EventPublishingService eventPublishingService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         eventPublishingService = new EventPublishingService(kafkaTemplate);
+        ReflectionTestUtils.setField(eventPublishingService, "batchEventsTopic", "batch-events");
+        ReflectionTestUtils.setField(eventPublishingService, "auditEventsTopic", "audit-events");
+        ReflectionTestUtils.setField(eventPublishingService, "routeItemsToAuditTopic", true);
+        ReflectionTestUtils.setField(eventPublishingService, "itemKeyMode", "item");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        eventPublishingService.stop();
     }
 
     @Test
@@ -52,4 +76,160 @@ class EventPublishingServiceTest {
 
         verify(kafkaTemplate, times(1)).send(eq("batch-events"), any(BatchEvent.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAggregateFailuresOfAUnitIntoOneResult() throws Exception {
+        RuntimeException itemError = new RuntimeException("item rejected");
+        RuntimeException laterError = new RuntimeException("later item rejected");
+        when(kafkaTemplate.send(eq("batch-events"), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.send(eq("audit-events"), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null))
+            .thenReturn(CompletableFuture.failedFuture(itemError))
+            .thenThrow(laterError);
+
+        PublishResult result = eventPublishingService.publishUnit(batch("batch-1"), 
+            List.of(item("item-1", "batch-1"), item("item-2", "batch-1"), item("item-3", "batch-1")))
+            .get(5, TimeUnit.SECONDS);
+
+        assertEquals("batch-1", result.objectId());
+        assertEquals(4, result.events());
+        assertEquals(2, result.failed());
+        assertSame(itemError, result.firstError());
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    void shouldMeasureUnitLatencyUntilTheLastAcknowledgement() throws Exception {
+        CompletableFuture<SendResult<String, Object>> slowAck = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("batch-events"), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.send(eq("audit-events"), anyString(), any())).thenReturn(slowAck);
+
+        CompletableFuture<PublishResult> pending = eventPublishingService.publishUnit(batch("batch-1"), 
+            List.of(item("item-1", "batch-1")));
+        Thread.sleep(50);
+        assertFalse(pending.isDone());
+        slowAck.complete(null);
+        PublishResult result = pending.get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertNull(result.firstError());
+        assertTrue(result.latencyMs() >= 50, "latency was " + result.latencyMs());
+    }
+
+    @Test
+    void shouldRouteItemsToTheAuditTopicUnlessRoutingIsOff() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        eventPublishingService.send(batch("batch-1"));
+        eventPublishingService.send(item("item-1", "batch-1"));
+        ReflectionTestUtils.setField(eventPublishingService, "routeItemsToAuditTopic", false);
+        eventPublishingService.send(item("item-2", "batch-1"));
+
+        verify(kafkaTemplate).send(eq("batch-events"), eq("batch-1"), any());
+        verify(kafkaTemplate).send(eq("audit-events"), eq("item-1"), any());
+        verify(kafkaTemplate).send(eq("batch-events"), eq("item-2"), any());
+    }
+
+    @Test
+    void shouldKeyItemsByTheirParentBatchInParentMode() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        ReflectionTestUtils.setField(eventPublishingService, "itemKeyMode", "parent");
+
+        eventPublishingService.send(item("item-1", "batch-1"));
+        eventPublishingService.send(item("item-2", null));
+
+        verify(kafkaTemplate).send(eq("audit-events"), eq("batch-1"), any());
+        verify(kafkaTemplate).send(eq("audit-events"), eq("item-2"), any());
+    }
+
+    @Test
+    void shouldCommitAtMostMaxUnitsPerTransaction() throws Exception {
+        List<Integer> transactionSizes = recordTransactions();
+        startTransactions(2, 1000);
+
+        List<CompletableFuture<PublishResult>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(eventPublishingService.publishUnit(batch("batch-" + i), List.of(item("item-" + i, "batch-" + i))));
+        }
+        for (CompletableFuture<PublishResult> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS).isSuccess());
+        }
+
+        assertEquals(List.of(4, 2), transactionSizes);
+    }
+
+    @Test
+    void shouldCommitAPartialTransactionAfterMaxWait() throws Exception {
+        List<Integer> transactionSizes = recordTransactions();
+        startTransactions(100, 20);
+
+        PublishResult first = eventPublishingService.publishUnit(batch("batch-1"), List.of())
+            .get(5, TimeUnit.SECONDS);
+        PublishResult second = eventPublishingService.publishUnit(batch("batch-2"), List.of())
+            .get(5, TimeUnit.SECONDS);
+
+        assertTrue(first.isSuccess());
+        assertTrue(second.isSuccess());
+        assertEquals(List.of(1, 1), transactionSizes);
+    }
+
+    @Test
+    void shouldFailEveryUnitOfAnAbortedTransaction() throws Exception {
+        RuntimeException abort = new RuntimeException("transaction aborted");
+        when(kafkaTemplate.executeInTransaction(any())).thenThrow(abort);
+        startTransactions(2, 1000);
+
+        CompletableFuture<PublishResult> first = eventPublishingService.publishUnit(batch("batch-1"), 
+            List.of(item("item-1", "batch-1"), item("item-2", "batch-1")));
+        CompletableFuture<PublishResult> second = eventPublishingService.publishUnit(batch("batch-2"), List.of());
+
+        PublishResult firstResult = first.get(5, TimeUnit.SECONDS);
+        PublishResult secondResult = second.get(5, TimeUnit.SECONDS);
+        assertEquals(3, firstResult.failed());
+        assertEquals(1, secondResult.failed());
+        assertSame(abort, firstResult.firstError());
+        assertSame(abort, secondResult.firstError());
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+    }
+
+    private void startTransactions(int maxUnits, long maxWaitMs) {
+        ReflectionTestUtils.setField(eventPublishingService, "transactionsEnabled", true);
+        ReflectionTestUtils.setField(eventPublishingService, "maxUnitsPerTransaction", maxUnits);
+        ReflectionTestUtils.setField(eventPublishingService, "maxTransactionWaitMs", maxWaitMs);
+        eventPublishingService.start();
+    }
+
+    /**
+     * Runs transaction callbacks against {@link #transactionOperations} and returns the number
+     * of records sent in each transaction, in commit order.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Integer> recordTransactions() {
+        List<Integer> transactionSizes = Collections.synchronizedList(new ArrayList<>());
+        when(transactionOperations.send(anyString(), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation -> {
+            clearInvocations(transactionOperations);
+            Object result = invocation.getArgument(0, KafkaOperations.OperationsCallback.class)
+                .doInOperations(transactionOperations);
+            transactionSizes.add(mockingDetails(transactionOperations).getInvocations().size());
+            return result;
+        });
+        return transactionSizes;
+    }
+
+    private static BatchEvent batch(String batchId) {
+        BatchPayload payload = new BatchPayload(batchId, "batch", "RECEIVED", "", Map.of(), 
+            LocalDateTime.now(), LocalDateTime.now());
+        return new BatchEvent("OBJECT_CREATED", LocalDateTime.now(), payload);
+    }
+
+    private static BatchEvent item(String itemId, String parentId) {
+        Map<String, String> metadata = parentId != null ? Map.of("parent_id", parentId) : Map.of();
+        BatchPayload payload = new BatchPayload(itemId, "item", "RECEIVED", "", metadata, 
+            LocalDateTime.now(), LocalDateTime.now());
+        return new BatchEvent("OBJECT_CREATED", LocalDateTime.now(), payload);
+    }
+}
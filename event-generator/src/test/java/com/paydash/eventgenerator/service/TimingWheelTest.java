@@ -0,0 +1,74 @@
+package com.paydash.eventgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void shouldDeliverItemsOnlyOnceDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 1_000);
+
+        List<String> due = new ArrayList<>();
+        wheel.advance(200, due::add);
+        assertEquals(List.of(), due);
+
+        wheel.advance(300, due::add);
+        assertEquals(List.of("a"), due);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(1_000, due::add);
+        assertEquals(List.of("a", "b"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldCascadeFarFutureItemsInDueOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 0);
+        Random random = new Random(42);
+        List<Long> scheduled = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long dueAt = 10 + (long) (random.nextDouble() * 200_000_000L);
+            scheduled.add(dueAt);
+            wheel.schedule(dueAt, dueAt);
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        long now = 0;
+        while (wheel.size() > 0) {
+            now += 1_000_000;
+            long reachedAt = now;
+            wheel.advance(now, dueAt -> {
+                assertTrue(dueAt <= reachedAt, "delivered early: " + dueAt);
+                assertTrue(dueAt > reachedAt - 1_000_000, "delivered late: " + dueAt);
+                delivered.add(dueAt);
+            });
+        }
+
+        assertEquals(scheduled.size(), delivered.size());
+    }
+
+    @Test
+    void shouldDeliverOverdueItemsOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 1_000);
+        wheel.schedule("late", 500);
+
+        List<String> due = new ArrayList<>();
+        wheel.advance(1_000, due::add);
+        assertEquals(List.of("late"), due);
+    }
+
+    @Test
+    void shouldRejectNonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, 0));
+    }
+}
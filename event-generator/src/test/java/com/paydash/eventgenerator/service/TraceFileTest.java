@@ -0,0 +1,100 @@
+package com.paydash.eventgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TraceFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadBackRecordsWithOffsetsFromFirstRecord() throws IOException {
+        Path path = dir.resolve("trace.bin");
+        try (TraceWriter writer = new TraceWriter(path)) {
+            writer.append(5_000_000_000L, "batch-1", bytes("{\"a\":1}"));
+            writer.append(5_000_250_000L, "item-1", bytes("{\"b\":2}"));
+            writer.append(7_000_000_000L, "batch-1", bytes("{\"c\":3}"));
+        }
+
+        try (TraceReader reader = new TraceReader(path)) {
+            TraceReader.TraceRecord first = reader.next();
+            assertEquals(0, first.offsetNanos());
+            assertEquals("batch-1", first.key());
+            assertArrayEquals(bytes("{\"a\":1}"), first.value());
+
+            TraceReader.TraceRecord second = reader.next();
+            assertEquals(250_000, second.offsetNanos());
+            assertEquals("item-1", second.key());
+
+            TraceReader.TraceRecord third = reader.next();
+            assertEquals(2_000_000_000L, third.offsetNanos());
+            assertArrayEquals(bytes("{\"c\":3}"), third.value());
+
+            assertNull(reader.next());
+            assertEquals(reader.size(), reader.position());
+        }
+    }
+
+    @Test
+    void shouldReadAcrossMappingWindows() throws IOException {
+        Path path = dir.resolve("trace.bin");
+        byte[] large = new byte[100];
+        Arrays.fill(large, (byte) 'x');
+        try (TraceWriter writer = new TraceWriter(path)) {
+            for (int i = 0; i < 50; i++) {
+                writer.append(i * 1_000L, "key-" + i, i % 7 == 0 ? large : bytes("v" + i));
+            }
+        }
+
+        try (TraceReader reader = new TraceReader(path, 16)) {
+            for (int i = 0; i < 50; i++) {
+                TraceReader.TraceRecord record = reader.next();
+                assertEquals(i * 1_000L, record.offsetNanos());
+                assertEquals("key-" + i, record.key());
+                assertArrayEquals(i % 7 == 0 ? large : bytes("v" + i), record.value());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void shouldRejectFilesWithoutTraceHeader() throws IOException {
+        Path path = dir.resolve("not-a-trace.bin");
+        Files.write(path, bytes("{\"eventType\":\"OBJECT_CREATED\"}"));
+
+        assertThrows(IOException.class, () -> new TraceReader(path));
+    }
+
+    @Test
+    void shouldReportTruncatedTrailingRecord() throws IOException {
+        Path path = dir.resolve("trace.bin");
+        try (TraceWriter writer = new TraceWriter(path)) {
+            writer.append(0, "batch-1", bytes("complete"));
+            writer.append(10, "batch-2", bytes("cut short"));
+        }
+        byte[] content = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(content, content.length - 4));
+
+        try (TraceReader reader = new TraceReader(path)) {
+            assertEquals("batch-1", reader.next().key());
+            assertThrows(EOFException.class, reader::next);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
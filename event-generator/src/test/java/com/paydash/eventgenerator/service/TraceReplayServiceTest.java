@@ -0,0 +1,41 @@
+package com.paydash.eventgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.paydash.eventgenerator.model.BatchEvent;
+
+class TraceReplayServiceTest {
+
+    private static final LocalDateTime RECORDED = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    void shouldShiftByWholeSecondsFromTheFirstRecordedEvent() {
+        BatchEvent first = event(RECORDED, RECORDED.minusSeconds(5), RECORDED);
+
+        Duration shift = TraceReplayService.timeShift(first, RECORDED.plusDays(2).plusNanos(700_000_000));
+
+        assertEquals(Duration.ofDays(2), shift);
+    }
+
+    @Test
+    void shouldShiftTimestampCreatedAndUpdated() {
+        BatchEvent event = event(RECORDED.plusSeconds(3), RECORDED, RECORDED.plusSeconds(3));
+
+        TraceReplayService.shiftTimes(event, Duration.ofHours(1));
+
+        assertEquals(RECORDED.plusHours(1).plusSeconds(3), event.getTimestamp());
+        assertEquals(RECORDED.plusHours(1), event.getPayload().getCreated());
+        assertEquals(RECORDED.plusHours(1).plusSeconds(3), event.getPayload().getUpdated());
+    }
+
+    private static BatchEvent event(LocalDateTime timestamp, LocalDateTime created, LocalDateTime updated) {
+        return new BatchEvent("OBJECT_UPDATED", timestamp, new BatchEvent.BatchPayload(
+            "batch-1", "batch", "VALIDATING", null, Map.of(), created, updated));
+    }
+}
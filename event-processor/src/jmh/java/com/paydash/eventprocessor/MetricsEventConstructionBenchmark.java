@@ -0,0 +1,104 @@
+package com.paydash.eventprocessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.paydash.eventprocessor.config.FlinkConfig;
+import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.model.MetricsEvent;
+import com.paydash.eventprocessor.util.AmountParser;
+import com.paydash.eventprocessor.util.CompanyIdCache;
+import com.paydash.eventprocessor.util.EventIds;
+
+/**
+ * Per-event cost of building a {@link MetricsEvent} from completed item metadata.
+ * {@code legacy} mirrors the original regex/BigDecimal/UUID.randomUUID() path,
+ * {@code current} the one used by ClickHouseSinkFunction.
+ *
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class MetricsEventConstructionBenchmark {
+    
+    private Map<String, String> metadata;
+    private BatchEvent event;
+    private CompanyIdCache companyIdCache;
+    
+    @Setup
+    public void setUp() {
+        metadata = new HashMap<>();
+        metadata.put("summary", "Legal & General");
+        metadata.put("company", "Legal & General");
+        metadata.put("amount", "65.42");
+        metadata.put("formatted_amount", "£65.42");
+        metadata.put("currency", "GBP");
+        metadata.put("region", "UK");
+        metadata.put("parent_id", "0b7e3d7c-4f4a-4f7e-9d55-1b2f1c0e9a11");
+        LocalDateTime now = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        event = new BatchEvent("ITEM_UPDATED", now, new BatchEvent.BatchPayload(
+            "0b7e3d7c-4f4a-4f7e-9d55-1b2f1c0e9a11-0001", "item", "COMPLETE", "SUCCESS", metadata, now, now));
+        companyIdCache = new CompanyIdCache(FlinkConfig.COMPANY_ID_CACHE_MAX_ENTRIES);
+    }
+    
+    @Benchmark
+    public MetricsEvent legacy() {
+        String companyName = metadata.get("summary");
+        if (companyName != null && !companyName.trim().isEmpty()) {
+            companyName = companyName.trim();
+        }
+        String companyId = companyName.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(metadata.get("amount").replaceAll("[^\\d.]", ""));
+        } catch (NumberFormatException e) {
+            amount = BigDecimal.ZERO;
+        }
+        return MetricsEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .auditId("item")
+                .batchId(metadata.get("parent_id"))
+                .companyId(companyId)
+                .companyName(companyName)
+                .amount(amount)
+                .status("COMPLETE")
+                .outcome("SUCCESS")
+                .build();
+    }
+    
+    @Benchmark
+    public MetricsEvent current() {
+        String companyName = metadata.get("summary");
+        if (companyName != null && !companyName.isBlank()) {
+            companyName = companyName.trim();
+        }
+        String companyId = companyIdCache.companyIdFor(companyName);
+        long amountCents = AmountParser.parseCents(metadata.get("amount"));
+        return MetricsEvent.builder()
+                .eventId(EventIds.forEvent(event).toString())
+                .auditId("item")
+                .batchId(metadata.get("parent_id"))
+                .companyId(companyId)
+                .companyName(companyName)
+                .amountCents(amountCents)
+                .status("COMPLETE")
+                .outcome("SUCCESS")
+                .completedAt(EventIds.eventTime(event))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.paydash.eventprocessor;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Command-line options for catch-up mode:
+ * <pre>
+ *   --catch-up [--from-timestamp=2024-05-01T00:00:00Z | --from-offset=N] [--to-offset=N]
+ * </pre>
+ * Without a start, each partition resumes from the consumer group's committed offset;
+ * without an end, it stops at the end offset seen when catch-up started. Offsets apply to
+ * every partition of each topic.
+ *
+ * @param fromTimestampMs start at the first record at or after this time, or null
+ * @param fromOffset      start at this offset, or null
+ * @param toOffset        stop before this offset, or null
+ */
+public record CatchUpOptions(Long fromTimestampMs, Long fromOffset, Long toOffset) {
+
+    /**
+     * Parses the job arguments; null unless {@code --catch-up} is among them.
+     *
+     * @throws IllegalArgumentException on unknown or malformed options
+     */
+    public static CatchUpOptions parse(String[] args) {
+        boolean catchUp = false;
+        Long fromTimestampMs = null;
+        Long fromOffset = null;
+        Long toOffset = null;
+
+        for (String arg : args) {
+            if (arg.equals("--catch-up")) {
+                catchUp = true;
+            } else if (arg.startsWith("--from-timestamp=")) {
+                fromTimestampMs = parseTimestamp(value(arg));
+            } else if (arg.startsWith("--from-offset=")) {
+                fromOffset = parseOffset(arg);
+            } else if (arg.startsWith("--to-offset=")) {
+                toOffset = parseOffset(arg);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (!catchUp) {
+            if (fromTimestampMs != null || fromOffset != null || toOffset != null) {
+                throw new IllegalArgumentException("Offset and timestamp options require --catch-up");
+            }
+            return null;
+        }
+        if (fromTimestampMs != null && fromOffset != null) {
+            throw new IllegalArgumentException("Use either --from-timestamp or --from-offset, not both");
+        }
+        if (fromOffset != null && toOffset != null && toOffset < fromOffset) {
+            throw new IllegalArgumentException("--to-offset is before --from-offset");
+        }
+        return new CatchUpOptions(fromTimestampMs, fromOffset, toOffset);
+    }
+
+    /**
+     * Consumer group a catch-up run commits its progress to. A run that resumes from the
+     * committed offsets continues the live group, so the live processor picks up where it
+     * stopped. A run with an explicit start would move the live group back or past records
+     * it has not processed yet, so it gets a group of its own.
+     */
+    public String groupIdFor(String liveGroupId) {
+        return fromTimestampMs == null && fromOffset == null ? liveGroupId : liveGroupId + "-catch-up";
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    private static long parseTimestamp(String value) {
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp, expected ISO-8601 like 2024-05-01T00:00:00Z: " + value);
+        }
+    }
+
+    private static long parseOffset(String arg) {
+        try {
+            long offset = Long.parseLong(value(arg));
+            if (offset < 0) {
+                throw new IllegalArgumentException("Offsets must not be negative: " + arg);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid offset: " + arg);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.paydash.eventprocessor;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * FIFO of consumed-but-not-yet-processed records for the low-priority lane, with the
+ * bookkeeping needed to commit offsets safely: a partition's committable offset never moves
+ * past its oldest deferred record, so a crash replays deferred work instead of losing it.
+ * Records are taken out in arrival order, which keeps the order of each object's events.
+ * Records a sink holds on to after processing, such as items parked until their parent
+ * batch is written, can be held the same way until the sink has settled them.
+ * <p>
+ * Not thread-safe.
+ */
+public class DeferredLane<T> {
+
+    private record Entry<T>(TopicPartition partition, long offset, T value) {}
+
+    private final ArrayDeque<Entry<T>> queue = new ArrayDeque<>();
+    private final Map<TopicPartition, ArrayDeque<Long>> deferredOffsets = new HashMap<>();
+    private final Map<TopicPartition, TreeSet<Long>> heldOffsets = new HashMap<>();
+    private final Map<TopicPartition, Long> consumedOffsets = new HashMap<>();
+
+    /**
+     * Records that the record at {@code offset} has been fully handled.
+     */
+    public void consumed(TopicPartition partition, long offset) {
+        consumedOffsets.merge(partition, offset + 1, Math::max);
+    }
+
+    /**
+     * Queues a record for later processing.
+     */
+    public void defer(TopicPartition partition, long offset, T value) {
+        queue.addLast(new Entry<>(partition, offset, value));
+        deferredOffsets.computeIfAbsent(partition, p -> new ArrayDeque<>()).addLast(offset);
+        consumed(partition, offset);
+    }
+
+    /**
+     * Removes and returns the oldest deferred record, or null if there is none.
+     */
+    public T poll() {
+        Entry<T> entry = queue.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        ArrayDeque<Long> offsets = deferredOffsets.get(entry.partition());
+        if (offsets != null) {
+            offsets.pollFirst();
+        }
+        return entry.value();
+    }
+
+    /**
+     * Keeps the partition's committable offset at or before {@code offset} until
+     * {@link #release} is called for it.
+     */
+    public void hold(TopicPartition partition, long offset) {
+        heldOffsets.computeIfAbsent(partition, p -> new TreeSet<>()).add(offset);
+    }
+
+    /**
+     * Drops a hold; a no-op for partitions forgotten since.
+     */
+    public void release(TopicPartition partition, long offset) {
+        TreeSet<Long> offsets = heldOffsets.get(partition);
+        if (offsets != null) {
+            offsets.remove(offset);
+        }
+    }
+
+    public int heldCount() {
+        int held = 0;
+        for (TreeSet<Long> offsets : heldOffsets.values()) {
+            held += offsets.size();
+        }
+        return held;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Next offset to commit per partition: the oldest deferred or held record if there is
+     * one, otherwise the one after the last consumed record.
+     */
+    public Map<TopicPartition, Long> committableOffsets() {
+        Map<TopicPartition, Long> committable = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> entry : consumedOffsets.entrySet()) {
+            long offset = entry.getValue();
+            ArrayDeque<Long> deferred = deferredOffsets.get(entry.getKey());
+            if (deferred != null && !deferred.isEmpty()) {
+                offset = Math.min(offset, deferred.peekFirst());
+            }
+            TreeSet<Long> held = heldOffsets.get(entry.getKey());
+            if (held != null && !held.isEmpty()) {
+                offset = Math.min(offset, held.first());
+            }
+            committable.put(entry.getKey(), offset);
+        }
+        return committable;
+    }
+
+    /**
+     * Drops the tracking of partitions this consumer no longer owns. Their deferred records
+     * must have been processed or abandoned by the caller first; held records are left to
+     * the partition's next owner, which resumes from before them.
+     */
+    public void forget(Collection<TopicPartition> partitions) {
+        queue.removeIf(entry -> partitions.contains(entry.partition()));
+        for (TopicPartition partition : partitions) {
+            deferredOffsets.remove(partition);
+            heldOffsets.remove(partition);
+            consumedOffsets.remove(partition);
+        }
+    }
+}
@@ -0,0 +1,615 @@
+package com.paydash.eventprocessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventprocessor.config.FlinkConfig;
+import com.paydash.eventprocessor.filter.DuplicateEventFilter;
+import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.model.EventEnvelope;
+import com.paydash.eventprocessor.sink.CassandraSinkFunction;
+import com.paydash.eventprocessor.sink.ClickHouseSinkFunction;
+import com.paydash.eventprocessor.sink.RedisSinkFunction;
+import com.paydash.eventprocessor.util.CompanyIdCache;
+
+/**
+ * One consume-and-sink loop: a Kafka consumer on a single topic feeding its own Redis,
+ * Cassandra and ClickHouse sinks and duplicate filter. Pipelines share nothing mutable, so
+ * the batch-events and audit-events traffic each get their own and scale independently.
+ * <p>
+ * A pipeline on batch-events that also carries item events (items not routed to
+ * audit-events) can use priority lanes: batch-level events in a poll are processed straight
+ * away while item events are deferred to a FIFO lane that gets a bounded time slice per
+ * loop, so under backlog queue-view updates overtake item fan-out, in catch-up as well as
+ * live. Each lane keeps its own order, and an object's events all go through the same lane,
+ * so no object's events are reordered. Pipelines that only see one kind of event gain
+ * nothing from the lanes and do not use them.
+ */
+public class EventPipeline implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventPipeline.class);
+
+    private static final int DEFERRED_CHUNK = 256;
+
+    private final String name;
+    private final String topic;
+    private final ObjectMapper objectMapper;
+    private final CompanyIdCache companyIdCache;
+    private final KafkaConsumer<String, String> consumer;
+    private final CatchUpOptions catchUp;
+    private final RedisSinkFunction redisSink = new RedisSinkFunction();
+    private final CassandraSinkFunction cassandraSink;
+    private final ClickHouseSinkFunction clickHouseSink;
+    private final DuplicateEventFilter duplicateFilter;
+
+    private final List<EventEnvelope> redisBatch = new ArrayList<>();
+    private final DeferredLane<Consumed> deferredItems = new DeferredLane<>();
+    // Where each item parked by the Cassandra sink was consumed from, held in deferredItems
+    private final Map<EventEnvelope, Consumed> parkedItems = new IdentityHashMap<>();
+    private Consumed processing;
+
+    private final boolean priorityLanes;
+    private final Set<TopicPartition> pausedForBackpressure = new HashSet<>();
+
+    private volatile boolean running = true;
+    private boolean paused;
+
+    public EventPipeline(String name, String topic, String groupId,
+                         ObjectMapper objectMapper, CompanyIdCache companyIdCache) {
+        this(name, topic, groupId, objectMapper, companyIdCache, null);
+    }
+
+    /**
+     * @param catchUp range to process in catch-up mode, or null for a live pipeline
+     */
+    public EventPipeline(String name, String topic, String groupId,
+                         ObjectMapper objectMapper, CompanyIdCache companyIdCache, CatchUpOptions catchUp) {
+        this.name = name;
+        this.topic = topic;
+        this.objectMapper = objectMapper;
+        this.companyIdCache = companyIdCache;
+        this.catchUp = catchUp;
+        this.priorityLanes = FlinkConfig.PRIORITY_LANES_ENABLED && carriesBatchesAndItems(topic);
+        this.cassandraSink = new CassandraSinkFunction(catchUp != null);
+        this.clickHouseSink = new ClickHouseSinkFunction(catchUp != null);
+        this.cassandraSink.setParkedItemListener(new HoldParkedItems());
+
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, FlinkConfig.KAFKA_BOOTSTRAP_SERVERS);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // With priority lanes, parked orphan items or in catch-up, offsets are committed
+        // manually so nothing consumed but not yet written is skipped
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, String.valueOf(!usesManualCommits()));
+        props.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, "1000");
+        if (catchUp != null) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, FlinkConfig.CATCH_UP_MAX_POLL_RECORDS);
+            props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, FlinkConfig.CATCH_UP_FETCH_MIN_BYTES);
+        }
+        if (FlinkConfig.KAFKA_READ_COMMITTED) {
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
+        this.consumer = new KafkaConsumer<>(props);
+
+        this.duplicateFilter = FlinkConfig.DEDUP_ENABLED ?
+            new DuplicateEventFilter(
+                FlinkConfig.DEDUP_FALSE_POSITIVE_RATE,
+                FlinkConfig.DEDUP_MEMORY_BUDGET_BYTES,
+                FlinkConfig.DEDUP_WINDOW_MS) :
+            null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void open() throws Exception {
+        redisSink.open(null);
+        cassandraSink.open(null);
+        clickHouseSink.open(null);
+        if (catchUp != null) {
+            logger.info("Pipeline {} initialized for catch-up on {}", name, topic);
+            return;
+        }
+        if (usesManualCommits()) {
+            consumer.subscribe(Collections.singletonList(topic), new DrainOnRevoke());
+        } else {
+            consumer.subscribe(Collections.singletonList(topic));
+        }
+        logger.info("Pipeline {} initialized, consuming {}", name, topic);
+    }
+
+    @Override
+    public void run() {
+        if (catchUp != null) {
+            runCatchUp();
+            return;
+        }
+        
+        long lastStatsAt = System.currentTimeMillis();
+        long lastCommitAt = System.currentTimeMillis();
+
+        try {
+            while (running) {
+                Duration pollTimeout = deferredItems.isEmpty() ? Duration.ofMillis(1000) : Duration.ZERO;
+                ConsumerRecords<String, String> records = consumer.poll(pollTimeout);
+
+                for (ConsumerRecord<String, String> record : records) {
+                    dispatch(new TopicPartition(record.topic(), record.partition()), record);
+                }
+                flushRedisBatch();
+
+                if (!deferredItems.isEmpty()) {
+                    processDeferredItems(FlinkConfig.PRIORITY_LANE_ITEM_BUDGET_MS);
+                }
+                applyBackpressure();
+
+                long now = System.currentTimeMillis();
+                if (usesManualCommits() && now - lastCommitAt >= FlinkConfig.KAFKA_MANUAL_COMMIT_INTERVAL_MS) {
+                    flushAndCommit(false);
+                    lastCommitAt = now;
+                }
+                if (now - lastStatsAt >= FlinkConfig.PROCESSOR_STATS_INTERVAL_MS) {
+                    logStats();
+                    lastStatsAt = now;
+                }
+            }
+        } catch (WakeupException e) {
+            if (running) {
+                throw e;
+            }
+        } catch (Exception e) {
+            logger.error("Error in pipeline {}", name, e);
+        }
+    }
+
+    /**
+     * Processes a record, or defers it to the item lane when priority lanes are in use.
+     */
+    private void dispatch(TopicPartition partition, ConsumerRecord<String, String> record) {
+        EventEnvelope envelope = parse(record);
+        if (envelope == null) {
+            deferredItems.consumed(partition, record.offset());
+        } else if (priorityLanes && isItemEvent(envelope)) {
+            deferredItems.defer(partition, record.offset(), new Consumed(partition, record.offset(), envelope));
+        } else {
+            process(new Consumed(partition, record.offset(), envelope));
+            deferredItems.consumed(partition, record.offset());
+        }
+    }
+
+    /**
+     * Parses a record and checks it against the duplicate filter; null if it is malformed or
+     * a duplicate.
+     */
+    private EventEnvelope parse(ConsumerRecord<String, String> record) {
+        try {
+            BatchEvent event = objectMapper.readValue(record.value(), BatchEvent.class);
+            EventEnvelope envelope = EventEnvelope.of(event, objectMapper, companyIdCache);
+
+            if (duplicateFilter != null && duplicateFilter.isDuplicate(envelope.getEventId())) {
+                logger.debug("Skipping duplicate event: {} for object: {}",
+                    event.getEventType(), event.getPayload().getObjectId());
+                return null;
+            }
+            return envelope;
+        } catch (Exception e) {
+            logger.error("Error processing record: {}", record.value(), e);
+            return null;
+        }
+    }
+
+    private void process(Consumed record) {
+        EventEnvelope envelope = record.envelope();
+        BatchEvent event = envelope.getEvent();
+        processing = record;
+        try {
+            if (catchUp == null) {
+                logger.info("Processing event: {} for object: {}",
+                    event.getEventType(), event.getPayload().getObjectId());
+            }
+
+            if (FlinkConfig.REDIS_PIPELINED_WRITES) {
+                cassandraSink.invoke(envelope, null);
+                clickHouseSink.invoke(envelope, null);
+                redisBatch.add(envelope);
+            } else {
+                redisSink.invoke(envelope, null);
+                cassandraSink.invoke(envelope, null);
+                clickHouseSink.invoke(envelope, null);
+
+                if (duplicateFilter != null) {
+                    duplicateFilter.markProcessed(envelope.getEventId());
+                }
+            }
+
+            logger.debug("Successfully processed event: {} for object: {}",
+                event.getEventType(), event.getPayload().getObjectId());
+
+        } catch (Exception e) {
+            logger.error("Error processing event: {} for object: {}",
+                event.getEventType(), event.getPayload().getObjectId(), e);
+        } finally {
+            processing = null;
+        }
+    }
+
+    private void flushRedisBatch() {
+        if (redisBatch.isEmpty()) {
+            return;
+        }
+        try {
+            redisSink.writeBatch(redisBatch);
+            if (duplicateFilter != null) {
+                redisBatch.forEach(envelope -> duplicateFilter.markProcessed(envelope.getEventId()));
+            }
+        } catch (Exception e) {
+            logger.error("Error writing {} events to Redis", redisBatch.size(), e);
+        }
+        redisBatch.clear();
+    }
+
+    /**
+     * Works through deferred item events for at most {@code budgetMs}, so the next poll, and
+     * the batch events in it, are never held up longer than that by item traffic.
+     */
+    private void processDeferredItems(long budgetMs) {
+        long deadline = System.currentTimeMillis() + budgetMs;
+        int processed = 0;
+        Consumed record;
+        while ((record = deferredItems.poll()) != null) {
+            process(record);
+            if (++processed % DEFERRED_CHUNK == 0) {
+                flushRedisBatch();
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+            }
+        }
+        flushRedisBatch();
+    }
+
+    /**
+     * Stops fetching while the deferred lane is over its limit and resumes once it has
+     * drained to half. Batch events share partitions with items, so they wait too; the limit
+     * only bounds memory, and freshness holds as long as the item backlog fits under it.
+     */
+    private void applyBackpressure() {
+        int deferred = deferredItems.size();
+        if (!paused && deferred >= FlinkConfig.PRIORITY_LANE_MAX_DEFERRED) {
+            // Partitions already paused, e.g. those catch-up has finished, stay paused
+            pausedForBackpressure.addAll(consumer.assignment());
+            pausedForBackpressure.removeAll(consumer.paused());
+            consumer.pause(pausedForBackpressure);
+            paused = true;
+            logger.warn("[{}] {} item events deferred, pausing consumption until they drain", name, deferred);
+        } else if (paused && deferred <= FlinkConfig.PRIORITY_LANE_MAX_DEFERRED / 2) {
+            consumer.resume(pausedForBackpressure);
+            pausedForBackpressure.clear();
+            paused = false;
+        }
+    }
+
+    /**
+     * Processes the catch-up range of every partition of the topic with bulk settings:
+     * assigns all partitions, seeks to the requested start, stops each partition at its end
+     * offset and commits progress to the pipeline's consumer group, so the live processor
+     * carries on from where catch-up stopped. Item events go through the same deferred lane
+     * as live, so queue views stay fresh during a backfill. Reports progress and an ETA
+     * periodically.
+     */
+    private void runCatchUp() {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(topic)) {
+            partitions.add(new TopicPartition(topic, info.partition()));
+        }
+        consumer.assign(partitions);
+        seekToCatchUpStart(partitions);
+
+        Map<TopicPartition, Long> endOffsets = new HashMap<>(consumer.endOffsets(partitions));
+        if (catchUp.toOffset() != null) {
+            endOffsets.replaceAll((partition, end) -> Math.min(end, catchUp.toOffset()));
+        }
+
+        Map<TopicPartition, Long> startOffsets = new HashMap<>();
+        Set<TopicPartition> active = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            long position = consumer.position(partition);
+            startOffsets.put(partition, position);
+            if (position < endOffsets.get(partition)) {
+                active.add(partition);
+            } else {
+                consumer.pause(List.of(partition));
+            }
+        }
+
+        long total = 0;
+        for (TopicPartition partition : active) {
+            total += endOffsets.get(partition) - startOffsets.get(partition);
+        }
+        logger.info("[{}] Catching up {} records on {} of {} partitions of {}",
+            name, total, active.size(), partitions.size(), topic);
+
+        long startedAt = System.currentTimeMillis();
+        long lastProgressAt = startedAt;
+        long processedAtLastProgress = 0;
+
+        try {
+            while (running && (!active.isEmpty() || !deferredItems.isEmpty())) {
+                Duration pollTimeout = deferredItems.isEmpty() ? Duration.ofMillis(500) : Duration.ZERO;
+                ConsumerRecords<String, String> records = consumer.poll(pollTimeout);
+
+                for (TopicPartition partition : records.partitions()) {
+                    long end = endOffsets.get(partition);
+                    for (ConsumerRecord<String, String> record : records.records(partition)) {
+                        if (record.offset() >= end) {
+                            break;
+                        }
+                        dispatch(partition, record);
+                    }
+                }
+                flushRedisBatch();
+
+                for (TopicPartition partition : List.copyOf(active)) {
+                    if (consumer.position(partition) >= endOffsets.get(partition)) {
+                        consumer.pause(List.of(partition));
+                        pausedForBackpressure.remove(partition);
+                        active.remove(partition);
+                    }
+                }
+
+                if (!deferredItems.isEmpty()) {
+                    processDeferredItems(FlinkConfig.PRIORITY_LANE_ITEM_BUDGET_MS);
+                }
+                applyBackpressure();
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgressAt >= FlinkConfig.CATCH_UP_PROGRESS_INTERVAL_MS) {
+                    if (!flushAndCommit(false)) {
+                        logger.error("[{}] Stopping catch-up; run it again to resume from the last committed offsets", name);
+                        break;
+                    }
+
+                    long processed = processedSince(startOffsets, endOffsets);
+                    double rate = (processed - processedAtLastProgress) * 1000.0 / (now - lastProgressAt);
+                    long remaining = total - processed;
+                    logger.info("[{}] Catch-up: {}/{} records ({}%), {} records/s, ETA {}",
+                        name, processed, total, total > 0 ? processed * 100 / total : 100, Math.round(rate),
+                        rate > 0 ? Duration.ofSeconds(Math.round(remaining / rate)) : "unknown");
+                    lastProgressAt = now;
+                    processedAtLastProgress = processed;
+                }
+            }
+
+            boolean committed = flushAndCommit(true);
+            long elapsedMs = Math.max(System.currentTimeMillis() - startedAt, 1);
+            long processed = processedSince(startOffsets, endOffsets);
+            logger.info("[{}] Catch-up {}: {} records in {} ({} records/s), Cassandra write errors: {}",
+                name, active.isEmpty() && deferredItems.isEmpty() && committed ? "complete" : "stopped", processed, Duration.ofMillis(elapsedMs),
+                processed * 1000 / elapsedMs, cassandraSink.getWriteErrors());
+        } catch (WakeupException e) {
+            if (running) {
+                throw e;
+            }
+        } catch (Exception e) {
+            logger.error("Error in catch-up of pipeline {}", name, e);
+        }
+    }
+
+    private void seekToCatchUpStart(List<TopicPartition> partitions) {
+        if (catchUp.fromTimestampMs() != null) {
+            Map<TopicPartition, Long> timestamps = new HashMap<>();
+            partitions.forEach(partition -> timestamps.put(partition, catchUp.fromTimestampMs()));
+            Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+            for (TopicPartition partition : partitions) {
+                OffsetAndTimestamp offset = offsets.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToEnd(List.of(partition));
+                }
+            }
+        } else if (catchUp.fromOffset() != null) {
+            Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.max(catchUp.fromOffset(), beginnings.get(partition)));
+            }
+        }
+        // Otherwise each partition starts from the group's committed offset (or the earliest)
+    }
+
+    private long processedSince(Map<TopicPartition, Long> startOffsets, Map<TopicPartition, Long> endOffsets) {
+        long processed = 0;
+        for (Map.Entry<TopicPartition, Long> start : startOffsets.entrySet()) {
+            long position = Math.min(consumer.position(start.getKey()), endOffsets.get(start.getKey()));
+            processed += Math.max(position - start.getValue(), 0);
+        }
+        return processed;
+    }
+
+    /**
+     * Commits the offsets of everything processed so far once the sinks have made it
+     * durable; rows still buffered or in flight in a sink would otherwise be lost on a crash
+     * with their offsets already committed. If a sink reports rows it could not write the
+     * commit is skipped. ClickHouse keeps such rows and retries them on the next flush;
+     * failed Cassandra bulk writes are not kept, so its flush keeps failing and catch-up
+     * stops at the last good commit instead of committing past them.
+     *
+     * @return whether the offsets were committed
+     */
+    private boolean flushAndCommit(boolean sync) throws InterruptedException {
+        flushRedisBatch();
+        try {
+            cassandraSink.flush();
+            clickHouseSink.flush();
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("[{}] Sink flush failed, offsets not committed", name, e);
+            return false;
+        }
+        commitOffsets(sync);
+        return true;
+    }
+
+    private boolean usesManualCommits() {
+        return priorityLanes || FlinkConfig.CASSANDRA_ORPHAN_HANDLING_ENABLED || catchUp != null;
+    }
+
+    /**
+     * Only batch-events carries both kinds of event, and only while the generator keeps item
+     * events there instead of routing them to audit-events.
+     */
+    private static boolean carriesBatchesAndItems(String topic) {
+        return FlinkConfig.KAFKA_TOPIC_BATCH_EVENTS.equals(topic) && FlinkConfig.ITEMS_ON_BATCH_TOPIC;
+    }
+
+    private void commitOffsets(boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        deferredItems.committableOffsets().forEach((partition, offset) ->
+            offsets.put(partition, new OffsetAndMetadata(offset)));
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (committed, exception) -> {
+                if (exception != null) {
+                    logger.warn("[{}] Offset commit failed", name, exception);
+                }
+            });
+        }
+    }
+
+    private static boolean isItemEvent(EventEnvelope envelope) {
+        return "item".equals(envelope.getPayload().getObjectType());
+    }
+
+    /**
+     * Asks the loop to stop; safe to call from another thread.
+     */
+    public void stop() {
+        running = false;
+        consumer.wakeup();
+    }
+
+    public void close() {
+        if (usesManualCommits()) {
+            try {
+                flushAndCommit(true);
+            } catch (Exception e) {
+                logger.error("Error committing final offsets of pipeline {}", name, e);
+            }
+        }
+        try {
+            redisSink.close();
+            cassandraSink.close();
+            clickHouseSink.close();
+            consumer.close();
+        } catch (Exception e) {
+            logger.error("Error closing resources of pipeline {}", name, e);
+        }
+    }
+
+    private void logStats() {
+        if (duplicateFilter != null) {
+            logger.info("[{}] Duplicate filter stats - {}", name, duplicateFilter.stats());
+        }
+        logger.info("[{}] Orphan item stats - parked: {}, released: {}, dead-lettered: {}, waiting: {}",
+            name, cassandraSink.getItemsParked(), cassandraSink.getItemsReleased(),
+            cassandraSink.getItemsDeadLettered(), cassandraSink.getOrphanBufferSize());
+        if (priorityLanes) {
+            logger.info("[{}] Deferred item events: {}{}", name, deferredItems.size(), paused ? " (fetching paused)" : "");
+        }
+        if (usesManualCommits()) {
+            logger.info("[{}] Offsets held back by parked items: {}", name, deferredItems.heldCount());
+        }
+    }
+
+    /**
+     * A record taken from Kafka and the envelope parsed from it.
+     */
+    private record Consumed(TopicPartition partition, long offset, EventEnvelope envelope) {}
+
+    /**
+     * Holds the offset of every item the Cassandra sink parks until the sink has written or
+     * dead-lettered it, so a crash reprocesses parked items instead of losing them.
+     */
+    private final class HoldParkedItems implements CassandraSinkFunction.ParkedItemListener {
+        @Override
+        public void parked(EventEnvelope item) {
+            if (processing != null) {
+                deferredItems.hold(processing.partition(), processing.offset());
+                parkedItems.put(item, processing);
+            }
+        }
+
+        @Override
+        public void settled(List<EventEnvelope> items) {
+            for (EventEnvelope item : items) {
+                Consumed record = parkedItems.remove(item);
+                if (record != null) {
+                    deferredItems.release(record.partition(), record.offset());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finishes deferred work before partitions move to another consumer, so the offsets
+     * committed for them cover everything this consumer took from them. Items still parked
+     * keep those offsets back and are reprocessed by the next owner.
+     */
+    private final class DrainOnRevoke implements ConsumerRebalanceListener {
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            Consumed record;
+            while ((record = deferredItems.poll()) != null) {
+                process(record);
+            }
+            try {
+                flushAndCommit(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deferredItems.forget(partitions);
+            pausedForBackpressure.removeAll(partitions);
+            parkedItems.values().removeIf(parked -> partitions.contains(parked.partition()));
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (paused) {
+                consumer.pause(partitions);
+                pausedForBackpressure.addAll(partitions);
+            }
+        }
+    }
+}
@@ -1,24 +1,15 @@
 package com.paydash.eventprocessor;
 
-import java.time.Duration;
-import java.util.Collections;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.paydash.eventprocessor.config.FlinkConfig;
-import com.paydash.eventprocessor.model.BatchEvent;
-import com.paydash.eventprocessor.sink.CassandraSinkFunction;
-import com.paydash.eventprocessor.sink.ClickHouseSinkFunction;
-import com.paydash.eventprocessor.sink.RedisSinkFunction;
+import com.paydash.eventprocessor.util.CompanyIdCache;
 
 public class SimpleEventProcessorJob {
     
@@ -28,67 +19,87 @@ public class SimpleEventProcessorJob {
         
         logger.info("Starting Simple Event Processor Job");
         
-        Properties props = new Properties();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, FlinkConfig.KAFKA_BOOTSTRAP_SERVERS);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, FlinkConfig.KAFKA_GROUP_ID);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true");
-        props.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, "1000");
-        
-        KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props);
-        consumer.subscribe(Collections.singletonList(FlinkConfig.KAFKA_TOPIC_BATCH_EVENTS));
-        
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
+        CompanyIdCache companyIdCache = new CompanyIdCache(FlinkConfig.COMPANY_ID_CACHE_MAX_ENTRIES);
+        
+        CatchUpOptions catchUp = CatchUpOptions.parse(args);
+        if (catchUp != null) {
+            runCatchUp(catchUp, objectMapper, companyIdCache);
+            return;
+        }
         
-        RedisSinkFunction redisSink = new RedisSinkFunction();
-        CassandraSinkFunction cassandraSink = new CassandraSinkFunction();
-        ClickHouseSinkFunction clickHouseSink = new ClickHouseSinkFunction();
+        EventPipeline batchPipeline = new EventPipeline("batches", FlinkConfig.KAFKA_TOPIC_BATCH_EVENTS, 
+            FlinkConfig.KAFKA_GROUP_ID, objectMapper, companyIdCache);
+        List<EventPipeline> itemPipelines = new ArrayList<>();
+        if (FlinkConfig.ITEM_PIPELINE_ENABLED) {
+            for (int i = 0; i < FlinkConfig.ITEM_PIPELINE_THREADS; i++) {
+                itemPipelines.add(new EventPipeline("items-" + i, FlinkConfig.KAFKA_TOPIC_AUDIT_EVENTS, 
+                    FlinkConfig.KAFKA_ITEM_GROUP_ID, objectMapper, companyIdCache));
+            }
+        }
         
+        List<Thread> itemThreads = new ArrayList<>();
         try {
-            redisSink.open(null);
-            cassandraSink.open(null);
-            clickHouseSink.open(null);
+            batchPipeline.open();
+            for (EventPipeline pipeline : itemPipelines) {
+                pipeline.open();
+            }
             
-            logger.info("Event Processor initialized, starting consumption...");
+            logger.info("Event Processor initialized with {} item pipeline(s), starting consumption...", 
+                itemPipelines.size());
             
-            while (true) {
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(1000));
-                
-                for (ConsumerRecord<String, String> record : records) {
-                    try {
-                        String jsonValue = record.value();
-                        BatchEvent event = objectMapper.readValue(jsonValue, BatchEvent.class);
-                        
-                        logger.info("Processing event: {} for object: {}", 
-                            event.getEventType(), event.getPayload().getObjectId());
-                        
-                        redisSink.invoke(event, null);
-                        cassandraSink.invoke(event, null);
-                        clickHouseSink.invoke(event, null);
-                        
-                        logger.debug("Successfully processed event: {} for object: {}", 
-                            event.getEventType(), event.getPayload().getObjectId());
-                            
-                    } catch (Exception e) {
-                        logger.error("Error processing record: {}", record.value(), e);
-                    }
-                }
+            for (EventPipeline pipeline : itemPipelines) {
+                itemThreads.add(Thread.ofPlatform().name(pipeline.getName()).start(pipeline));
             }
+            batchPipeline.run();
             
         } catch (Exception e) {
             logger.error("Error in event processor", e);
         } finally {
+            for (EventPipeline pipeline : itemPipelines) {
+                pipeline.stop();
+            }
+            for (Thread thread : itemThreads) {
+                thread.join();
+            }
+            batchPipeline.close();
+            for (EventPipeline pipeline : itemPipelines) {
+                pipeline.close();
+            }
+        }
+    }
+    
+    /**
+     * Processes a backlog and exits. Topics are caught up one after the other, batches first,
+     * so item events find their parent batches already written. Without an explicit start,
+     * progress is committed to the live consumer groups, so the live processor resumes where
+     * catch-up stopped; a run from a timestamp or offset commits to separate groups and leaves
+     * the live offsets alone.
+     */
+    private static void runCatchUp(CatchUpOptions catchUp, ObjectMapper objectMapper, 
+                                   CompanyIdCache companyIdCache) {
+        logger.info("Starting catch-up: {}", catchUp);
+        
+        List<EventPipeline> pipelines = new ArrayList<>();
+        pipelines.add(new EventPipeline("batches-catch-up", FlinkConfig.KAFKA_TOPIC_BATCH_EVENTS, 
+            catchUp.groupIdFor(FlinkConfig.KAFKA_GROUP_ID), objectMapper, companyIdCache, catchUp));
+        if (FlinkConfig.ITEM_PIPELINE_ENABLED) {
+            pipelines.add(new EventPipeline("items-catch-up", FlinkConfig.KAFKA_TOPIC_AUDIT_EVENTS, 
+                catchUp.groupIdFor(FlinkConfig.KAFKA_ITEM_GROUP_ID), objectMapper, companyIdCache, catchUp));
+        }
+        
+        for (EventPipeline pipeline : pipelines) {
             try {
-                redisSink.close();
-                cassandraSink.close();
-                clickHouseSink.close();
-                consumer.close();
+                pipeline.open();
+                pipeline.run();
             } catch (Exception e) {
-                logger.error("Error closing resources", e);
+                logger.error("Error in catch-up of {}", pipeline.getName(), e);
+                return;
+            } finally {
+                pipeline.close();
             }
         }
+        logger.info("Catch-up finished");
     }
-}
\ No newline at end of file
+}
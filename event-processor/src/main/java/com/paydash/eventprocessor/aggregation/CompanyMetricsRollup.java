@@ -0,0 +1,83 @@
+package com.paydash.eventprocessor.aggregation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Tracks which hourly company_metrics_summary windows need recomputing. The summary is
+ * rebuilt from the deduplicated audit_completions rows of a window rather than summed in
+ * memory, so replayed events are not counted twice and no partial sums are lost with the
+ * process. A window is marked once its rows have been inserted and handed out for a rollup
+ * once the wall clock passes its end plus the allowed lateness; a later row marks it again.
+ */
+public class CompanyMetricsRollup {
+
+    private final long windowSizeMs;
+    private final long allowedLatenessMs;
+    private final TreeSet<Long> pendingWindows = new TreeSet<>();
+
+    public CompanyMetricsRollup(long windowSizeMs, long allowedLatenessMs) {
+        if (windowSizeMs <= 0) {
+            throw new IllegalArgumentException("windowSizeMs must be positive");
+        }
+        this.windowSizeMs = windowSizeMs;
+        this.allowedLatenessMs = allowedLatenessMs;
+    }
+
+    /**
+     * Marks the window holding {@code eventTime}; call once the row is in audit_completions.
+     */
+    public synchronized void markWritten(Instant eventTime) {
+        long eventTimeMs = eventTime != null ? eventTime.toEpochMilli() : System.currentTimeMillis();
+        pendingWindows.add(windowStart(eventTimeMs));
+    }
+
+    /**
+     * Marks every window from the one holding {@code fromMs} to the one holding {@code toMs},
+     * used on startup for windows a previous run may not have rolled up.
+     */
+    public synchronized void markRange(long fromMs, long toMs) {
+        for (long start = windowStart(fromMs); start <= toMs; start += windowSizeMs) {
+            pendingWindows.add(start);
+        }
+    }
+
+    /**
+     * Removes and returns the start of every marked window whose end plus allowed lateness
+     * is at or before {@code nowMs}, oldest first.
+     */
+    public synchronized List<Instant> takeClosed(long nowMs) {
+        List<Instant> closed = new ArrayList<>();
+        Iterator<Long> it = pendingWindows.iterator();
+        while (it.hasNext()) {
+            long start = it.next();
+            if (start + windowSizeMs + allowedLatenessMs > nowMs) {
+                break;
+            }
+            closed.add(Instant.ofEpochMilli(start));
+            it.remove();
+        }
+        return closed;
+    }
+
+    /**
+     * Marks windows again after their rollup failed.
+     */
+    public synchronized void restore(Collection<Instant> windowStarts) {
+        for (Instant start : windowStarts) {
+            pendingWindows.add(start.toEpochMilli());
+        }
+    }
+
+    public synchronized int pendingWindowCount() {
+        return pendingWindows.size();
+    }
+
+    private long windowStart(long timeMs) {
+        return timeMs - Math.floorMod(timeMs, windowSizeMs);
+    }
+}
@@ -5,19 +5,84 @@ public class FlinkConfig {
     public static final String KAFKA_BOOTSTRAP_SERVERS = "localhost:9092";
     public static final String KAFKA_TOPIC_BATCH_EVENTS = "batch-events";
     public static final String KAFKA_GROUP_ID = "event-processor-group";
+    public static final String KAFKA_TOPIC_AUDIT_EVENTS = "audit-events";
+    public static final String KAFKA_ITEM_GROUP_ID = "event-processor-items-group";
+    // Item pipeline consuming audit-events alongside the batch-events pipeline; threads beyond
+    // the topic's partition count sit idle, more instances can join the same group
+    public static final boolean ITEM_PIPELINE_ENABLED = true;
+    public static final int ITEM_PIPELINE_THREADS = 1;
+    // Match the generator's app.kafka.route-items-to-audit-topic: true when it is false and
+    // item events stay on batch-events next to their batches
+    public static final boolean ITEMS_ON_BATCH_TOPIC = false;
+    // Only skip uncommitted records; set when the generator publishes transactionally
+    public static final boolean KAFKA_READ_COMMITTED = false;
+    // How often offsets are committed when the pipeline commits them itself
+    public static final long KAFKA_MANUAL_COMMIT_INTERVAL_MS = 1000;
     
     public static final String REDIS_HOST = "localhost";
     public static final int REDIS_PORT = 6379;
+    public static final boolean REDIS_PIPELINED_WRITES = true;
+    public static final boolean REDIS_COMPACT_ENCODING = true; // false writes the legacy layout
+    public static final long REDIS_QUEUE_RETENTION_MS = 86400000; // 24 hours back from the newest event time, 0 disables
+    public static final long REDIS_QUEUE_MAX_OBJECTS = 10000; // 0 disables
+    public static final long REDIS_OBJECT_TTL_SECONDS = 604800; // 7 days, refreshed on every update
+    public static final long REDIS_TERMINAL_OBJECT_TTL_SECONDS = 3600; // 1 hour after COMPLETE/INVALID
+    public static final boolean REDIS_ITEM_ROLLUPS_ENABLED = true;
+    public static final long REDIS_CHANGE_STREAM_MAXLEN = 10000; // approximate cap on queue:changes, 0 disables
     
     public static final String CASSANDRA_HOST = "localhost";
     public static final int CASSANDRA_PORT = 9042;
     public static final String CASSANDRA_KEYSPACE = "paydash";
     public static final String CASSANDRA_TABLE_BATCH_OBJECTS = "batch_objects";
     public static final String CASSANDRA_TABLE_AUDIT_ENTRIES = "audit_entries";
+    // Existence checks and parking for items that arrive before their batch. Can be turned
+    // off when consuming read-committed from a transactional, parent-keyed producer that keeps
+    // items on batch-events, where a batch is always committed with and ahead of its items.
+    public static final boolean CASSANDRA_ORPHAN_HANDLING_ENABLED = true;
+    public static final int CASSANDRA_ORPHAN_BUFFER_MAX_ITEMS = 50000;
+    public static final long CASSANDRA_ORPHAN_TIMEOUT_MS = 120000; // 2 minutes
+    public static final long CASSANDRA_ORPHAN_EXPIRY_CHECK_MS = 1000;
+    public static final int CASSANDRA_ORPHAN_RECHECK_MAX_PARENTS = 1000; // per expiry check, looked up concurrently
+    public static final int CASSANDRA_KNOWN_BATCHES_MAX_ENTRIES = 10000;
     
     public static final String CLICKHOUSE_HOST = "localhost";
     public static final int CLICKHOUSE_PORT = 8123;
     
+    public static final int CLICKHOUSE_BATCH_SIZE_MIN = 100;
+    public static final int CLICKHOUSE_BATCH_SIZE_MAX = 50000;
+    public static final long CLICKHOUSE_FLUSH_INTERVAL_MIN_MS = 500;
+    public static final long CLICKHOUSE_FLUSH_INTERVAL_MAX_MS = 10000;
+    public static final long CLICKHOUSE_FLUSH_CHECK_MS = 250;
+    public static final long CLICKHOUSE_TARGET_INSERT_LATENCY_MS = 1000;
+    public static final long CLICKHOUSE_TARGET_INSERT_PERIOD_MS = 1000; // aim for ~1 insert/s at peak
+    
+    public static final long COMPANY_METRICS_WINDOW_MS = 3600000; // 1 hour
+    public static final long COMPANY_METRICS_ALLOWED_LATENESS_MS = 300000; // 5 minutes
+    public static final long COMPANY_METRICS_CLOSE_CHECK_MS = 30000; // 30 seconds
+    public static final int COMPANY_ID_CACHE_MAX_ENTRIES = 10000;
+    public static final int METADATA_INTERN_MAX_ENTRIES = 10000;
+    
+    public static final boolean DEDUP_ENABLED = true;
+    public static final double DEDUP_FALSE_POSITIVE_RATE = 0.000001;
+    public static final long DEDUP_MEMORY_BUDGET_BYTES = 16L * 1024 * 1024; // 16 MB
+    public static final long DEDUP_WINDOW_MS = 3600000; // 1 hour
+    public static final long PROCESSOR_STATS_INTERVAL_MS = 30000; // 30 seconds
+    
+    // Batch-level events are processed as soon as they are polled; item events wait in a
+    // deferred lane that gets at most ITEM_BUDGET_MS per poll loop. Only applies to the
+    // batch-events pipeline when ITEMS_ON_BATCH_TOPIC, the one pipeline that sees both
+    public static final boolean PRIORITY_LANES_ENABLED = true;
+    public static final long PRIORITY_LANE_ITEM_BUDGET_MS = 200;
+    public static final int PRIORITY_LANE_MAX_DEFERRED = 50000; // pause fetching above this
+    
+    // Catch-up/backfill mode (--catch-up): bulk consumer and sink settings
+    public static final int CATCH_UP_MAX_POLL_RECORDS = 5000;
+    public static final int CATCH_UP_FETCH_MIN_BYTES = 1048576; // 1 MB
+    public static final int CATCH_UP_CASSANDRA_MAX_IN_FLIGHT = 512;
+    public static final int CATCH_UP_CLICKHOUSE_BATCH_SIZE_MIN = 10000;
+    public static final int CATCH_UP_CLICKHOUSE_INSERT_THREADS = 4;
+    public static final long CATCH_UP_PROGRESS_INTERVAL_MS = 5000;
+    
     public static final String CHECKPOINT_URI = "file:///tmp/flink-checkpoints";
     public static final long CHECKPOINT_INTERVAL = 10000; // 10 seconds
     
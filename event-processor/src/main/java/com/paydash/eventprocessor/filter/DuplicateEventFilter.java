@@ -0,0 +1,141 @@
+package com.paydash.eventprocessor.filter;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.util.EventIds;
+
+/**
+ * Drops events that were already pushed through the sinks recently, so records
+ * re-delivered after a rebalance or restart cost no backend I/O.
+ * <p>
+ * Events are keyed on the same content-derived id the sinks use (objectId, eventType,
+ * status, event timestamp) and remembered in two rotating Bloom filters: lookups check
+ * both, inserts go to the current one, and the older generation is discarded once the
+ * current one reaches its capacity or the window elapses. Memory is fixed by the budget;
+ * capacity per generation follows from the budget and the target false-positive rate.
+ */
+public class DuplicateEventFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateEventFilter.class);
+    
+    private final long windowMs;
+    private final long bitsPerGeneration;
+    private final int hashFunctions;
+    private final long capacityPerGeneration;
+    
+    private long[] current;
+    private long[] previous;
+    private long currentInsertions;
+    private long currentStartedAtMs;
+    
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+    
+    public DuplicateEventFilter(double falsePositiveRate, long memoryBudgetBytes, long windowMs) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        if (memoryBudgetBytes < 16) {
+            throw new IllegalArgumentException("memoryBudgetBytes too small: " + memoryBudgetBytes);
+        }
+        
+        long wordsPerGeneration = Math.max(1, memoryBudgetBytes / 2 / Long.BYTES);
+        this.bitsPerGeneration = wordsPerGeneration * Long.SIZE;
+        double ln2 = Math.log(2);
+        this.capacityPerGeneration = Math.max(1, (long) (bitsPerGeneration * ln2 * ln2 / -Math.log(falsePositiveRate)));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerGeneration / capacityPerGeneration * ln2));
+        this.windowMs = windowMs;
+        
+        this.current = new long[(int) wordsPerGeneration];
+        this.previous = new long[(int) wordsPerGeneration];
+        this.currentStartedAtMs = System.currentTimeMillis();
+    }
+    
+    /**
+     * Returns true if the event was (probably) marked processed within the window.
+     */
+    public boolean isDuplicate(BatchEvent event) {
+        return isDuplicate(EventIds.forEvent(event));
+    }
+    
+    /**
+     * Same as {@link #isDuplicate(BatchEvent)} for an already derived event id.
+     */
+    public synchronized boolean isDuplicate(UUID key) {
+        checked.incrementAndGet();
+        boolean duplicate = contains(current, key) || contains(previous, key);
+        if (duplicate) {
+            duplicates.incrementAndGet();
+        }
+        return duplicate;
+    }
+    
+    /**
+     * Remembers the event as processed so later re-deliveries are dropped.
+     */
+    public void markProcessed(BatchEvent event) {
+        markProcessed(EventIds.forEvent(event));
+    }
+    
+    /**
+     * Same as {@link #markProcessed(BatchEvent)} for an already derived event id.
+     */
+    public synchronized void markProcessed(UUID key) {
+        long now = System.currentTimeMillis();
+        if (currentInsertions >= capacityPerGeneration || now - currentStartedAtMs >= windowMs) {
+            rotate(now);
+        }
+        
+        long h1 = key.getMostSignificantBits();
+        long h2 = key.getLeastSignificantBits();
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerGeneration);
+            current[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        currentInsertions++;
+    }
+    
+    private boolean contains(long[] bits, UUID key) {
+        long h1 = key.getMostSignificantBits();
+        long h2 = key.getLeastSignificantBits();
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitsPerGeneration);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void rotate(long now) {
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        logger.debug("Rotated duplicate filter generation after {} insertions", currentInsertions);
+        currentInsertions = 0;
+        currentStartedAtMs = now;
+        rotations.incrementAndGet();
+    }
+    
+    public long getChecked() { return checked.get(); }
+    public long getDuplicates() { return duplicates.get(); }
+    public long getCapacityPerGeneration() { return capacityPerGeneration; }
+    
+    public double getHitRate() {
+        long total = checked.get();
+        return total > 0 ? (double) duplicates.get() / total : 0;
+    }
+    
+    public String stats() {
+        return String.format("checked=%d, duplicates=%d, hitRate=%.2f%%, rotations=%d, capacityPerGeneration=%d, hashFunctions=%d",
+            checked.get(), duplicates.get(), getHitRate() * 100, rotations.get(), capacityPerGeneration, hashFunctions);
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BatchEvent {
@@ -54,6 +55,8 @@ public class BatchEvent {
         private String objectType;
         private String status;
         private String outcome;
+        
+        @JsonDeserialize(using = EventMetadataDeserializer.class)
         private Map<String, String> metadata;
         
         @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
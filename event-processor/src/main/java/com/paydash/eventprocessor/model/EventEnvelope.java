@@ -0,0 +1,138 @@
+package com.paydash.eventprocessor.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventprocessor.util.AmountParser;
+import com.paydash.eventprocessor.util.CompanyIdCache;
+import com.paydash.eventprocessor.util.EventIds;
+
+/**
+ * A deserialized event together with everything the sinks derive from it, computed once
+ * right after deserialization: the event id and time, epoch-millis timestamps, the metadata
+ * as JSON, the parsed amount and the resolved company. Sinks read these instead of each
+ * re-serializing or re-scanning the metadata map.
+ */
+public final class EventEnvelope {
+
+    /** Epoch millis reported for a missing created/updated timestamp. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final BatchEvent event;
+    private final UUID eventId;
+    private final long eventTimeMillis;
+    private final long createdMillis;
+    private final long updatedMillis;
+    private final String metadataJson;
+    private final long amountCents;
+    private final String companyName;
+    private final String companyId;
+
+    private EventEnvelope(BatchEvent event, UUID eventId, long eventTimeMillis, long createdMillis,
+                          long updatedMillis, String metadataJson, long amountCents,
+                          String companyName, String companyId) {
+        this.event = event;
+        this.eventId = eventId;
+        this.eventTimeMillis = eventTimeMillis;
+        this.createdMillis = createdMillis;
+        this.updatedMillis = updatedMillis;
+        this.metadataJson = metadataJson;
+        this.amountCents = amountCents;
+        this.companyName = companyName;
+        this.companyId = companyId;
+    }
+
+    public static EventEnvelope of(BatchEvent event, ObjectMapper objectMapper, CompanyIdCache companyIdCache)
+            throws JsonProcessingException {
+        BatchEvent.BatchPayload payload = event.getPayload();
+        Map<String, String> metadata = payload != null ? payload.getMetadata() : null;
+
+        String metadataJson = null;
+        long amountCents = 0;
+        String companyName = null;
+        String companyId = null;
+        if (metadata != null) {
+            metadataJson = objectMapper.writeValueAsString(metadata);
+            amountCents = AmountParser.parseCents(metadata.get("amount"));
+            companyName = extractCompanyName(metadata);
+            companyId = metadata.get("company_id");
+            if (companyId == null) {
+                companyId = companyIdCache.companyIdFor(companyName);
+            }
+        }
+
+        return new EventEnvelope(
+            event,
+            EventIds.forEvent(event),
+            EventIds.eventTime(event).toEpochMilli(),
+            payload != null ? epochMillis(payload.getCreated()) : NO_TIME,
+            payload != null ? epochMillis(payload.getUpdated()) : NO_TIME,
+            metadataJson,
+            amountCents,
+            companyName,
+            companyId
+        );
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    private static String extractCompanyName(Map<String, String> metadata) {
+        String summary = metadata.get("summary");
+        if (summary != null && !summary.isBlank()) {
+            return summary.trim();
+        }
+
+        String company = metadata.get("company");
+        if (company != null && !company.isBlank()) {
+            return company.trim();
+        }
+
+        String companyName = metadata.get("company_name");
+        if (companyName != null && !companyName.isBlank()) {
+            return companyName.trim();
+        }
+
+        String companyId = metadata.get("company_id");
+        return companyId != null ? "Company " + companyId : null;
+    }
+
+    public BatchEvent getEvent() { return event; }
+    public BatchEvent.BatchPayload getPayload() { return event.getPayload(); }
+    public String getEventType() { return event.getEventType(); }
+
+    public UUID getEventId() { return eventId; }
+    public long getEventTimeMillis() { return eventTimeMillis; }
+    public Instant getEventTime() { return Instant.ofEpochMilli(eventTimeMillis); }
+
+    public long getCreatedMillis() { return createdMillis; }
+    public long getUpdatedMillis() { return updatedMillis; }
+
+    public Instant getCreated() {
+        return createdMillis != NO_TIME ? Instant.ofEpochMilli(createdMillis) : null;
+    }
+
+    public Instant getUpdated() {
+        return updatedMillis != NO_TIME ? Instant.ofEpochMilli(updatedMillis) : null;
+    }
+
+    /** Metadata serialized as a JSON object, or null if the event has no metadata. */
+    public String getMetadataJson() { return metadataJson; }
+
+    /** Parsed metadata amount in cents; {@link AmountParser#INVALID} if it could not be parsed. */
+    public long getAmountCents() { return amountCents; }
+
+    public String getCompanyName() { return companyName; }
+    public String getCompanyId() { return companyId; }
+
+    /** Milliseconds between created and updated, or 0 if either is missing. */
+    public long getProcessingTimeMs() {
+        return createdMillis != NO_TIME && updatedMillis != NO_TIME ? updatedMillis - createdMillis : 0;
+    }
+}
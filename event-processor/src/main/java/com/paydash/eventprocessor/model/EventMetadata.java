@@ -0,0 +1,196 @@
+package com.paydash.eventprocessor.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.paydash.eventprocessor.config.FlinkConfig;
+import com.paydash.eventprocessor.util.StringInterner;
+
+/**
+ * Compact event metadata map. Keys the generator is known to send live in fixed slots of a
+ * single array, so an event holds no per-key entry objects or key strings, and anything else
+ * goes to a small overflow map. Values of low-cardinality keys (region, currency, company,
+ * ...) are interned, so events buffered in the sinks share one copy of each.
+ * <p>
+ * Null values are not retained: putting null removes the key. Not thread-safe.
+ */
+public final class EventMetadata extends AbstractMap<String, String> {
+
+    static final String[] KEYS = {
+        "records", "source", "batch", "priority", "summary", "region", "currency", "amount",
+        "formatted_amount", "parent_id", "parent_type", "item_sequence", "item_count",
+        "batch_total", "batch_formatted_total", "description", "company", "industry",
+        "company_id", "company_name", "batch_id"
+    };
+
+    private static final boolean[] INTERNED = new boolean[KEYS.length];
+
+    static {
+        for (String key : new String[] {"source", "priority", "summary", "region", "currency", "parent_type",
+                                        "description", "company", "industry", "company_id", "company_name"}) {
+            INTERNED[slotOf(key)] = true;
+        }
+    }
+
+    private static final StringInterner VALUES = new StringInterner(FlinkConfig.METADATA_INTERN_MAX_ENTRIES);
+
+    private final String[] slots = new String[KEYS.length];
+    private Map<String, String> overflow;
+    private int slotCount;
+
+    public EventMetadata() {}
+
+    public EventMetadata(Map<String, String> metadata) {
+        putAll(metadata);
+    }
+
+    private static int slotOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return switch ((String) key) {
+            case "records" -> 0;
+            case "source" -> 1;
+            case "batch" -> 2;
+            case "priority" -> 3;
+            case "summary" -> 4;
+            case "region" -> 5;
+            case "currency" -> 6;
+            case "amount" -> 7;
+            case "formatted_amount" -> 8;
+            case "parent_id" -> 9;
+            case "parent_type" -> 10;
+            case "item_sequence" -> 11;
+            case "item_count" -> 12;
+            case "batch_total" -> 13;
+            case "batch_formatted_total" -> 14;
+            case "description" -> 15;
+            case "company" -> 16;
+            case "industry" -> 17;
+            case "company_id" -> 18;
+            case "company_name" -> 19;
+            case "batch_id" -> 20;
+            default -> -1;
+        };
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return slots[slot];
+        }
+        return overflow != null ? overflow.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        if (value == null) {
+            return remove(key);
+        }
+
+        int slot = slotOf(key);
+        if (slot < 0) {
+            if (overflow == null) {
+                overflow = new HashMap<>(4);
+            }
+            return overflow.put(key, value);
+        }
+
+        String previous = slots[slot];
+        slots[slot] = INTERNED[slot] ? VALUES.intern(value) : value;
+        if (previous == null) {
+            slotCount++;
+        }
+        return previous;
+    }
+
+    @Override
+    public String remove(Object key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return overflow != null ? overflow.remove(key) : null;
+        }
+
+        String previous = slots[slot];
+        if (previous != null) {
+            slots[slot] = null;
+            slotCount--;
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, null);
+        slotCount = 0;
+        overflow = null;
+    }
+
+    @Override
+    public int size() {
+        return slotCount + (overflow != null ? overflow.size() : 0);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return EventMetadata.this.size();
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private int nextSlot = advance(0);
+        private Iterator<Entry<String, String>> overflowEntries;
+
+        private int advance(int from) {
+            while (from < slots.length && slots[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextSlot < slots.length) {
+                return true;
+            }
+            if (overflowEntries == null && overflow != null) {
+                overflowEntries = overflow.entrySet().iterator();
+            }
+            return overflowEntries != null && overflowEntries.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSlot < slots.length) {
+                Entry<String, String> entry = new SimpleImmutableEntry<>(KEYS[nextSlot], slots[nextSlot]);
+                nextSlot = advance(nextSlot + 1);
+                return entry;
+            }
+            return overflowEntries.next();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.paydash.eventprocessor.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads a flat JSON object of scalar values straight into an {@link EventMetadata}, without
+ * an intermediate HashMap. Numbers and booleans are kept as their text; nulls are dropped.
+ */
+public class EventMetadataDeserializer extends StdDeserializer<EventMetadata> {
+    
+    public EventMetadataDeserializer() {
+        super(EventMetadata.class);
+    }
+    
+    @Override
+    public EventMetadata deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (EventMetadata) ctxt.handleUnexpectedToken(EventMetadata.class, p);
+        }
+        
+        EventMetadata metadata = new EventMetadata();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String key = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value.isScalarValue()) {
+                if (value != JsonToken.VALUE_NULL) {
+                    metadata.put(key, p.getText());
+                }
+            } else {
+                return (EventMetadata) ctxt.handleUnexpectedToken(String.class, p);
+            }
+        }
+        return metadata;
+    }
+}
@@ -1,6 +1,7 @@
 package com.paydash.eventprocessor.model;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -12,7 +13,7 @@ public class MetricsEvent {
     private String batchId;
     private String companyId;
     private String companyName;
-    private BigDecimal amount;
+    private long amountCents;
     private String status;
     private String outcome;
     private Instant completedAt;
@@ -26,7 +27,7 @@ public class MetricsEvent {
         this.batchId = builder.batchId;
         this.companyId = builder.companyId;
         this.companyName = builder.companyName;
-        this.amount = builder.amount;
+        this.amountCents = builder.amountCents;
         this.status = builder.status;
         this.outcome = builder.outcome;
         this.completedAt = builder.completedAt;
@@ -43,7 +44,7 @@ public class MetricsEvent {
         private String batchId;
         private String companyId;
         private String companyName;
-        private BigDecimal amount;
+        private long amountCents;
         private String status;
         private String outcome;
         private Instant completedAt;
@@ -75,7 +76,13 @@ public class MetricsEvent {
         }
         
         public Builder amount(BigDecimal amount) {
-            this.amount = amount;
+            this.amountCents = amount != null ? 
+                amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+            return this;
+        }
+        
+        public Builder amountCents(long amountCents) {
+            this.amountCents = amountCents;
             return this;
         }
         
@@ -109,7 +116,8 @@ public class MetricsEvent {
     public String getBatchId() { return batchId; }
     public String getCompanyId() { return companyId; }
     public String getCompanyName() { return companyName; }
-    public BigDecimal getAmount() { return amount; }
+    public long getAmountCents() { return amountCents; }
+    public BigDecimal getAmount() { return BigDecimal.valueOf(amountCents, 2); }
     public String getStatus() { return status; }
     public String getOutcome() { return outcome; }
     public Instant getCompletedAt() { return completedAt; }
@@ -125,7 +133,7 @@ public class MetricsEvent {
                 "eventId='" + eventId + '\'' +
                 ", auditId='" + auditId + '\'' +
                 ", companyName='" + companyName + '\'' +
-                ", amount=" + amount +
+                ", amount=" + getAmount() +
                 ", status='" + status + '\'' +
                 ", outcome='" + outcome + '\'' +
                 ", completedAt=" + completedAt +
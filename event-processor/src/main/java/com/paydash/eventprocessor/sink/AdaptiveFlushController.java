@@ -0,0 +1,117 @@
+package com.paydash.eventprocessor.sink;
+
+/**
+ * Feedback controller for the ClickHouse insert batch size and flush interval.
+ * <p>
+ * The batch size tracks the observed row rate so that, at peak, roughly one insert is
+ * issued per target insert period (fewer, larger parts). While inserts are healthy the
+ * flush interval is the time the observed rate takes to fill one batch, so the timer flush
+ * and the size flush agree instead of the timer firing ever more often. Insert latency
+ * above target or ClickHouse errors shrink the batch and stretch the interval.
+ * All values stay within the configured bounds.
+ */
+public class AdaptiveFlushController {
+    
+    private static final double EWMA_ALPHA = 0.3;
+    
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minFlushIntervalMs;
+    private final long maxFlushIntervalMs;
+    private final long targetInsertLatencyMs;
+    private final long targetInsertPeriodMs;
+    
+    private volatile int batchSize;
+    private volatile long flushIntervalMs;
+    private double rowsPerSecond;
+    private double insertLatencyMs;
+    private int consecutiveErrors;
+    private long lastInsertAtMs;
+    
+    public AdaptiveFlushController(int minBatchSize, int maxBatchSize, 
+                                   long minFlushIntervalMs, long maxFlushIntervalMs,
+                                   long targetInsertLatencyMs, long targetInsertPeriodMs) {
+        if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Invalid batch size bounds: " + minBatchSize + ".." + maxBatchSize);
+        }
+        if (minFlushIntervalMs <= 0 || maxFlushIntervalMs < minFlushIntervalMs) {
+            throw new IllegalArgumentException("Invalid flush interval bounds: " + minFlushIntervalMs + ".." + maxFlushIntervalMs);
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minFlushIntervalMs = minFlushIntervalMs;
+        this.maxFlushIntervalMs = maxFlushIntervalMs;
+        this.targetInsertLatencyMs = targetInsertLatencyMs;
+        this.targetInsertPeriodMs = targetInsertPeriodMs;
+        this.batchSize = minBatchSize;
+        this.flushIntervalMs = minFlushIntervalMs;
+        this.lastInsertAtMs = -1;
+    }
+    
+    public int batchSize() {
+        return batchSize;
+    }
+    
+    public long flushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    /**
+     * Records the outcome of one insert of {@code rows} rows that took {@code latencyMs},
+     * completing at {@code nowMs}, and moves the operating point accordingly.
+     */
+    public synchronized void recordInsert(int rows, long latencyMs, boolean success, long nowMs) {
+        if (lastInsertAtMs >= 0 && nowMs > lastInsertAtMs) {
+            double observedRate = rows * 1000.0 / (nowMs - lastInsertAtMs);
+            rowsPerSecond = rowsPerSecond == 0 ? observedRate : ewma(rowsPerSecond, observedRate);
+        }
+        lastInsertAtMs = nowMs;
+        
+        if (!success) {
+            consecutiveErrors++;
+            batchSize = clampBatch(batchSize / 2);
+            flushIntervalMs = clampInterval(flushIntervalMs * 2);
+            return;
+        }
+        
+        consecutiveErrors = 0;
+        insertLatencyMs = insertLatencyMs == 0 ? latencyMs : ewma(insertLatencyMs, latencyMs);
+        
+        if (insertLatencyMs > targetInsertLatencyMs) {
+            batchSize = clampBatch((int) (batchSize * 0.8));
+            flushIntervalMs = clampInterval((long) (flushIntervalMs * 1.25));
+        } else {
+            int desiredBatch = clampBatch((int) (rowsPerSecond * targetInsertPeriodMs / 1000.0));
+            batchSize = clampBatch(batchSize + (desiredBatch - batchSize) / 2);
+            if (rowsPerSecond > 0) {
+                flushIntervalMs = clampInterval((long) (batchSize * 1000.0 / rowsPerSecond));
+            }
+        }
+    }
+    
+    public synchronized OperatingPoint operatingPoint() {
+        return new OperatingPoint(batchSize, flushIntervalMs, rowsPerSecond, insertLatencyMs, consecutiveErrors);
+    }
+    
+    private double ewma(double current, double sample) {
+        return current + EWMA_ALPHA * (sample - current);
+    }
+    
+    private int clampBatch(int value) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, value));
+    }
+    
+    private long clampInterval(long value) {
+        return Math.max(minFlushIntervalMs, Math.min(maxFlushIntervalMs, value));
+    }
+    
+    public record OperatingPoint(int batchSize, long flushIntervalMs, double rowsPerSecond,
+                                 double insertLatencyMs, int consecutiveErrors) {
+        
+        @Override
+        public String toString() {
+            return String.format("batchSize=%d, flushInterval=%dms, rate=%.1f rows/s, insertLatency=%.1fms, consecutiveErrors=%d",
+                batchSize, flushIntervalMs, rowsPerSecond, insertLatencyMs, consecutiveErrors);
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.paydash.eventprocessor.sink;
 
 import java.net.InetSocketAddress;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
@@ -9,18 +18,68 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.paydash.eventprocessor.config.FlinkConfig;
 import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.model.EventEnvelope;
 
-public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
+public class CassandraSinkFunction extends RichSinkFunction<EventEnvelope> {
     
     private static final Logger logger = LoggerFactory.getLogger(CassandraSinkFunction.class);
     
+    private final boolean bulk;
+    private ParkedItemListener parkedItemListener = ParkedItemListener.NONE;
+    
     private transient CqlSession session;
     private transient PreparedStatement batchObjectInsert;
     private transient PreparedStatement auditEntryInsert;
+    private transient PreparedStatement batchExistsQuery;
+    private transient PreparedStatement orphanedItemInsert;
+    private transient OrphanItemBuffer<EventEnvelope> orphanBuffer;
+    private transient Set<String> knownBatches;
+    private transient long lastOrphanExpiryMs;
+    private transient AtomicLong itemsParked;
+    private transient AtomicLong itemsReleased;
+    private transient AtomicLong itemsDeadLettered;
+    private transient Semaphore inFlightWrites;
+    private transient AtomicLong writeErrors;
+    private transient AtomicLong unflushedWriteErrors;
+    
+    public CassandraSinkFunction() {
+        this(false);
+    }
+    
+    /**
+     * @param bulk write asynchronously with up to CATCH_UP_CASSANDRA_MAX_IN_FLIGHT writes
+     *             outstanding and without per-item logging, for catch-up runs; callers must
+     *             {@link #flush()} before treating events as written
+     */
+    public CassandraSinkFunction(boolean bulk) {
+        this.bulk = bulk;
+    }
+    
+    /**
+     * Told when an item is parked, and when parked items have been written or dead-lettered.
+     * Parked items live only in memory, so the caller must not commit their offsets until
+     * they are settled; items still parked when the sink closes are left to be reprocessed.
+     */
+    public interface ParkedItemListener {
+        ParkedItemListener NONE = new ParkedItemListener() {
+            @Override public void parked(EventEnvelope item) {}
+            @Override public void settled(List<EventEnvelope> items) {}
+        };
+        
+        /** Called from {@link #invoke} for the item being written. */
+        void parked(EventEnvelope item);
+        
+        void settled(List<EventEnvelope> items);
+    }
+    
+    public void setParkedItemListener(ParkedItemListener listener) {
+        this.parkedItemListener = listener;
+    }
     
     @Override
     public void open(Configuration parameters) throws Exception {
@@ -34,18 +93,42 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
         createKeyspaceAndTables();
         prepareBatchObjectStatement();
         prepareAuditEntryStatement();
+        prepareOrphanStatements();
         
-        logger.info("CassandraSinkFunction initialized successfully");
+        orphanBuffer = new OrphanItemBuffer<>(
+            FlinkConfig.CASSANDRA_ORPHAN_BUFFER_MAX_ITEMS, 
+            FlinkConfig.CASSANDRA_ORPHAN_TIMEOUT_MS
+        );
+        knownBatches = Collections.newSetFromMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > FlinkConfig.CASSANDRA_KNOWN_BATCHES_MAX_ENTRIES;
+            }
+        });
+        lastOrphanExpiryMs = System.currentTimeMillis();
+        itemsParked = new AtomicLong(0);
+        itemsReleased = new AtomicLong(0);
+        itemsDeadLettered = new AtomicLong(0);
+        inFlightWrites = new Semaphore(FlinkConfig.CATCH_UP_CASSANDRA_MAX_IN_FLIGHT);
+        writeErrors = new AtomicLong(0);
+        unflushedWriteErrors = new AtomicLong(0);
+        
+        logger.info("CassandraSinkFunction initialized successfully{}", bulk ? " in bulk mode" : "");
     }
     
     @Override
-    public void invoke(BatchEvent event, Context context) throws Exception {
+    public void invoke(EventEnvelope envelope, Context context) throws Exception {
+        BatchEvent event = envelope.getEvent();
         try {
             if (isItemAuditEvent(event)) {
-                handleItemAuditEvent(event);
+                handleItemAuditEvent(envelope);
             } else {
-                insertBatchObject(event);
-                insertAuditEntry(event);
+                insertBatchObject(envelope);
+                insertAuditEntry(envelope);
+                if ("batch".equals(event.getPayload().getObjectType())) {
+                    knownBatches.add(event.getPayload().getObjectId());
+                    releaseOrphans(event.getPayload().getObjectId());
+                }
             }
             logger.debug("Successfully processed event: {} for object: {}", 
                 event.getEventType(), event.getPayload().getObjectId());
@@ -53,6 +136,8 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             logger.error("Error processing event: {} for object: {}", 
                 event.getEventType(), event.getPayload().getObjectId(), e);
             throw e;
+        } finally {
+            expireOrphansIfDue();
         }
     }
     
@@ -105,6 +190,22 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             ON paydash.audit_entries (parent_type)
             """);
         
+        session.execute("""
+            CREATE TABLE IF NOT EXISTS paydash.orphaned_item_events (
+                parent_id text,
+                object_id text,
+                event_id uuid,
+                event_type text,
+                status text,
+                outcome text,
+                timestamp timestamp,
+                metadata text,
+                reason text,
+                dead_lettered_at timestamp,
+                PRIMARY KEY ((parent_id), object_id, event_id)
+            ) WITH default_time_to_live = 1209600
+            """);
+        
         logger.info("Cassandra keyspace and tables created/verified");
     }
     
@@ -125,8 +226,19 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             """);
     }
     
-    private void insertBatchObject(BatchEvent event) {
-        BatchEvent.BatchPayload payload = event.getPayload();
+    private void prepareOrphanStatements() {
+        batchExistsQuery = session.prepare(
+            "SELECT object_id FROM paydash.batch_objects WHERE object_id = ? LIMIT 1"
+        );
+        orphanedItemInsert = session.prepare("""
+            INSERT INTO paydash.orphaned_item_events 
+            (parent_id, object_id, event_id, event_type, status, outcome, timestamp, metadata, reason, dead_lettered_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, toTimestamp(now()))
+            """);
+    }
+    
+    private void insertBatchObject(EventEnvelope envelope) throws InterruptedException {
+        BatchEvent.BatchPayload payload = envelope.getPayload();
         
         BoundStatement statement = batchObjectInsert.bind(
             payload.getObjectId(),
@@ -134,14 +246,15 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             payload.getStatus(),
             payload.getOutcome(),
             payload.getMetadata(),
-            java.time.Instant.from(payload.getCreated().atZone(java.time.ZoneOffset.UTC)),
-            java.time.Instant.from(payload.getUpdated().atZone(java.time.ZoneOffset.UTC))
+            envelope.getCreated(),
+            envelope.getUpdated()
         );
         
-        session.execute(statement);
+        write(statement);
     }
     
-    private void insertAuditEntry(BatchEvent event) {
+    private void insertAuditEntry(EventEnvelope envelope) throws InterruptedException {
+        BatchEvent event = envelope.getEvent();
         BatchEvent.BatchPayload payload = event.getPayload();
         
         String action = "OBJECT_CREATED".equals(event.getEventType()) ? "CREATED" : "UPDATED";
@@ -163,7 +276,7 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
         }
         
         BoundStatement statement = auditEntryInsert.bind(
-            UUID.randomUUID(),
+            envelope.getEventId(),
             payload.getObjectId(),
             payload.getObjectType(),
             parentId,
@@ -173,11 +286,11 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             payload.getStatus(),
             previousOutcome,
             payload.getOutcome(),
-            java.time.Instant.from(event.getTimestamp().atZone(java.time.ZoneOffset.UTC)),
-            payload.getMetadata() != null ? payload.getMetadata().toString() : null
+            envelope.getEventTime(),
+            envelope.getMetadataJson()
         );
         
-        session.execute(statement);
+        write(statement);
     }
     
     private boolean isItemAuditEvent(BatchEvent event) {
@@ -185,44 +298,251 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
                "item".equals(event.getPayload().getObjectType());
     }
     
-    private void handleItemAuditEvent(BatchEvent event) {
-        BatchEvent.BatchPayload payload = event.getPayload();
+    /**
+     * Writes the item if its parent batch is known to exist, otherwise parks it until the
+     * batch event arrives, or a periodic recheck finds it written. Items usually arrive before
+     * their batch has been written because they are keyed by item id and land on other
+     * partitions, or are consumed from the audit-events topic by a separate pipeline.
+     */
+    private void handleItemAuditEvent(EventEnvelope envelope) throws InterruptedException {
+        BatchEvent.BatchPayload payload = envelope.getPayload();
+        String parentId = payload.getMetadata() != null ? payload.getMetadata().get("parent_id") : null;
+        
+        if (parentId == null) {
+            logger.warn("No parent batch id for item {}", payload.getObjectId());
+            deadLetter(List.of(envelope), "missing parent_id");
+            return;
+        }
         
-        if (!batchExists(payload.getMetadata().get("parent_id"))) {
-            logger.warn("Parent batch {} not found for item {}", 
-                payload.getMetadata().get("parent_id"), payload.getObjectId());
+        if (!FlinkConfig.CASSANDRA_ORPHAN_HANDLING_ENABLED) {
+            insertItemAuditEntry(envelope);
+            logItemWritten(payload);
             return;
         }
         
-        insertItemAuditEntry(event);
-        logger.info("Created item audit entry: {}", payload.getObjectId());
+        if (!orphanBuffer.isParked(parentId)) {
+            if (knownBatches.contains(parentId)) {
+                insertItemAuditEntry(envelope);
+                logItemWritten(payload);
+                return;
+            }
+            if (batchExists(parentId)) {
+                knownBatches.add(parentId);
+                insertItemAuditEntry(envelope);
+                logItemWritten(payload);
+                return;
+            }
+        }
+        
+        park(parentId, List.of(envelope));
+        parkedItemListener.parked(envelope);
+        logger.debug("Parked item {} until parent batch {} is written", payload.getObjectId(), parentId);
+    }
+    
+    private void park(String parentId, List<EventEnvelope> items) {
+        long now = System.currentTimeMillis();
+        for (EventEnvelope item : items) {
+            List<EventEnvelope> evicted = orphanBuffer.park(parentId, item, now);
+            itemsParked.incrementAndGet();
+            if (!evicted.isEmpty()) {
+                logger.warn("Orphan item buffer full, evicting {} oldest parked items", evicted.size());
+                deadLetter(evicted, "orphan buffer full");
+            }
+        }
     }
     
     private boolean batchExists(String parentId) {
-        if (parentId == null) return false;
-        
         try {
-            PreparedStatement checkBatch = session.prepare(
-                "SELECT object_id FROM paydash.batch_objects WHERE object_id = ? LIMIT 1"
-            );
-            BoundStatement statement = checkBatch.bind(parentId);
-            var result = session.execute(statement);
-            return result.one() != null;
+            return session.execute(batchExistsQuery.bind(parentId)).one() != null;
         } catch (Exception e) {
             logger.error("Error checking if batch {} exists", parentId, e);
             return false;
         }
     }
     
-    private void insertItemAuditEntry(BatchEvent event) {
+    /**
+     * Writes every item parked under the batch in one round of concurrent inserts. If any
+     * insert fails the items are parked again, and the next recheck of the batch retries them.
+     */
+    private void releaseOrphans(String batchId) {
+        List<EventEnvelope> released = orphanBuffer.release(batchId);
+        if (released.isEmpty()) {
+            return;
+        }
+        
+        List<BoundStatement> statements = new ArrayList<>(released.size());
+        for (EventEnvelope item : released) {
+            statements.add(bindItemAuditEntry(item));
+        }
+        try {
+            executeAll(statements);
+        } catch (Exception e) {
+            logger.error("Error writing {} parked items for batch {}, parking them again", released.size(), batchId, e);
+            park(batchId, released);
+            return;
+        }
+        itemsReleased.addAndGet(released.size());
+        parkedItemListener.settled(released);
+        logger.info("Released {} parked items for batch {}", released.size(), batchId);
+    }
+    
+    private void expireOrphansIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastOrphanExpiryMs < FlinkConfig.CASSANDRA_ORPHAN_EXPIRY_CHECK_MS) {
+            return;
+        }
+        lastOrphanExpiryMs = now;
+        
+        recheckParkedParents();
+        
+        List<EventEnvelope> expired = orphanBuffer.expire(now);
+        if (!expired.isEmpty()) {
+            logger.warn("{} items waited more than {} ms for their parent batch", 
+                expired.size(), FlinkConfig.CASSANDRA_ORPHAN_TIMEOUT_MS);
+            deadLetter(expired, "parent batch timeout");
+        }
+    }
+    
+    /**
+     * Looks parked parents up again, for batches written by another pipeline or processor
+     * instance, whose batch events this sink never sees. Parents are taken least recently
+     * checked first, so the rotation reaches every parked parent, and all lookups of a pass
+     * are issued concurrently and waited for together.
+     */
+    private void recheckParkedParents() {
+        List<String> parentIds = orphanBuffer.parentsToRecheck(FlinkConfig.CASSANDRA_ORPHAN_RECHECK_MAX_PARENTS);
+        if (parentIds.isEmpty()) {
+            return;
+        }
+        
+        List<CompletableFuture<Boolean>> lookups = new ArrayList<>(parentIds.size());
+        for (String parentId : parentIds) {
+            lookups.add(session.executeAsync(batchExistsQuery.bind(parentId)).toCompletableFuture()
+                .thenApply(result -> result.one() != null)
+                .exceptionally(e -> {
+                    logger.error("Error checking if batch {} exists", parentId, e);
+                    return false;
+                }));
+        }
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).join();
+        
+        for (int i = 0; i < parentIds.size(); i++) {
+            if (lookups.get(i).join()) {
+                knownBatches.add(parentIds.get(i));
+                releaseOrphans(parentIds.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Records items that could not be written to audit_entries in orphaned_item_events, so
+     * they can be inspected or replayed instead of being lost. Items that cannot be recorded
+     * either stay unsettled, so their offsets are not committed and a restart reprocesses them.
+     */
+    private void deadLetter(List<EventEnvelope> items, String reason) {
+        List<BoundStatement> statements = new ArrayList<>(items.size());
+        for (EventEnvelope item : items) {
+            BatchEvent.BatchPayload payload = item.getPayload();
+            String parentId = payload.getMetadata() != null ? payload.getMetadata().get("parent_id") : null;
+            statements.add(orphanedItemInsert.bind(
+                parentId != null ? parentId : "",
+                payload.getObjectId(),
+                item.getEventId(),
+                item.getEventType(),
+                payload.getStatus(),
+                payload.getOutcome(),
+                item.getEventTime(),
+                item.getMetadataJson(),
+                reason
+            ));
+        }
+        try {
+            executeAll(statements);
+            itemsDeadLettered.addAndGet(items.size());
+        } catch (Exception e) {
+            logger.error("Error dead-lettering {} orphaned items ({}), leaving their offsets uncommitted", 
+                items.size(), reason, e);
+            return;
+        }
+        parkedItemListener.settled(items);
+    }
+    
+    private void executeAll(List<BoundStatement> statements) {
+        List<CompletableFuture<AsyncResultSet>> futures = new ArrayList<>(statements.size());
+        for (BoundStatement statement : statements) {
+            CompletionStage<AsyncResultSet> stage = session.executeAsync(statement);
+            futures.add(stage.toCompletableFuture());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+    
+    public long getItemsParked() { return itemsParked.get(); }
+    public long getItemsReleased() { return itemsReleased.get(); }
+    public long getItemsDeadLettered() { return itemsDeadLettered.get(); }
+    public int getOrphanBufferSize() { return orphanBuffer.size(); }
+    
+    private void insertItemAuditEntry(EventEnvelope envelope) throws InterruptedException {
+        write(bindItemAuditEntry(envelope));
+    }
+    
+    private void logItemWritten(BatchEvent.BatchPayload payload) {
+        if (!bulk) {
+            logger.info("Created item audit entry: {}", payload.getObjectId());
+        }
+    }
+    
+    /**
+     * Executes a write synchronously, or in bulk mode asynchronously once one of the
+     * in-flight permits is free. Rows are upserts stamped with client-side timestamps, so
+     * async writes to the same row still resolve to the latest one issued.
+     */
+    private void write(BoundStatement statement) throws InterruptedException {
+        if (!bulk) {
+            session.execute(statement);
+            return;
+        }
+        inFlightWrites.acquire();
+        session.executeAsync(statement).whenComplete((result, exception) -> {
+            inFlightWrites.release();
+            if (exception != null) {
+                writeErrors.incrementAndGet();
+                unflushedWriteErrors.incrementAndGet();
+                logger.error("Async Cassandra write failed", exception);
+            }
+        });
+    }
+    
+    /**
+     * Waits until every write issued so far has completed.
+     *
+     * @throws IllegalStateException if any async write has failed since the sink was opened;
+     *         the statements are not kept, so their events can only be recovered by
+     *         reprocessing from before them, and every later flush fails too
+     */
+    public void flush() throws InterruptedException {
+        if (!bulk) {
+            return;
+        }
+        inFlightWrites.acquire(FlinkConfig.CATCH_UP_CASSANDRA_MAX_IN_FLIGHT);
+        inFlightWrites.release(FlinkConfig.CATCH_UP_CASSANDRA_MAX_IN_FLIGHT);
+        long failed = unflushedWriteErrors.get();
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " async Cassandra writes failed");
+        }
+    }
+    
+    public long getWriteErrors() { return writeErrors.get(); }
+    
+    private BoundStatement bindItemAuditEntry(EventEnvelope envelope) {
+        BatchEvent event = envelope.getEvent();
         BatchEvent.BatchPayload payload = event.getPayload();
         
         String action = event.getEventType().replace("ITEM_", "");
         String parentId = payload.getMetadata().get("parent_id");
         String parentType = payload.getMetadata().get("parent_type");
         
-        BoundStatement statement = auditEntryInsert.bind(
-            UUID.randomUUID(),
+        return auditEntryInsert.bind(
+            envelope.getEventId(),
             payload.getObjectId(),
             payload.getObjectType(),
             parentId,
@@ -232,15 +552,25 @@ public class CassandraSinkFunction extends RichSinkFunction<BatchEvent> {
             payload.getStatus(),
             null,
             payload.getOutcome(),
-            java.time.Instant.from(event.getTimestamp().atZone(java.time.ZoneOffset.UTC)),
-            payload.getMetadata() != null ? payload.getMetadata().toString() : null
+            envelope.getEventTime(),
+            envelope.getMetadataJson()
         );
-        
-        session.execute(statement);
     }
     
     @Override
     public void close() throws Exception {
+        if (session != null) {
+            try {
+                flush();
+            } catch (IllegalStateException e) {
+                logger.error("Closing with lost Cassandra writes", e);
+            }
+        }
+        if (orphanBuffer != null && orphanBuffer.size() > 0) {
+            List<EventEnvelope> remaining = orphanBuffer.drain();
+            logger.warn("{} items still waiting for their parent batch on close; their offsets were not " +
+                "committed, so they are reprocessed on the next start", remaining.size());
+        }
         if (session != null) {
             session.close();
             logger.info("CassandraSinkFunction closed");
@@ -1,18 +1,18 @@
 package com.paydash.eventprocessor.sink;
 
-import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
-import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -24,16 +24,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.clickhouse.jdbc.ClickHouseDataSource;
+import com.paydash.eventprocessor.aggregation.CompanyMetricsRollup;
 import com.paydash.eventprocessor.config.FlinkConfig;
 import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.model.EventEnvelope;
 import com.paydash.eventprocessor.model.MetricsEvent;
+import com.paydash.eventprocessor.util.AmountParser;
 
-public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
+public class ClickHouseSinkFunction extends RichSinkFunction<EventEnvelope> {
     
     private static final Logger logger = LoggerFactory.getLogger(ClickHouseSinkFunction.class);
     
-    private static final int BATCH_SIZE = 100;
-    private static final long FLUSH_INTERVAL_MS = 5000;
+    private final boolean bulk;
     
     private transient ClickHouseDataSource dataSource;
     private transient List<MetricsEvent> metricsBuffer;
@@ -42,6 +44,22 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
     private transient AtomicLong eventsReceived;
     private transient AtomicLong eventsWritten;
     private transient AtomicLong writeErrors;
+    private transient CompanyMetricsRollup companyMetricsRollup;
+    private transient AtomicLong windowsRolledUp;
+    private transient AdaptiveFlushController flushController;
+    private transient Set<CompletableFuture<Void>> inFlightInserts;
+    private transient boolean flushing;
+    
+    public ClickHouseSinkFunction() {
+        this(false);
+    }
+    
+    /**
+     * @param bulk start from catch-up sized insert batches and run more concurrent inserts
+     */
+    public ClickHouseSinkFunction(boolean bulk) {
+        this.bulk = bulk;
+    }
     
     @Override
     public void open(Configuration parameters) throws Exception {
@@ -53,16 +71,38 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
         
         dataSource = new ClickHouseDataSource(url);
         metricsBuffer = new ArrayList<>();
-        executorService = Executors.newScheduledThreadPool(2);
+        executorService = Executors.newScheduledThreadPool(bulk ? FlinkConfig.CATCH_UP_CLICKHOUSE_INSERT_THREADS : 2);
         lastFlushTime = new AtomicLong(System.currentTimeMillis());
         eventsReceived = new AtomicLong(0);
         eventsWritten = new AtomicLong(0);
         writeErrors = new AtomicLong(0);
+        companyMetricsRollup = new CompanyMetricsRollup(
+            FlinkConfig.COMPANY_METRICS_WINDOW_MS, 
+            FlinkConfig.COMPANY_METRICS_ALLOWED_LATENESS_MS
+        );
+        windowsRolledUp = new AtomicLong(0);
+        markWindowsSinceLastRollup();
+        inFlightInserts = ConcurrentHashMap.newKeySet();
+        flushController = new AdaptiveFlushController(
+            bulk ? FlinkConfig.CATCH_UP_CLICKHOUSE_BATCH_SIZE_MIN : FlinkConfig.CLICKHOUSE_BATCH_SIZE_MIN,
+            FlinkConfig.CLICKHOUSE_BATCH_SIZE_MAX,
+            FlinkConfig.CLICKHOUSE_FLUSH_INTERVAL_MIN_MS,
+            FlinkConfig.CLICKHOUSE_FLUSH_INTERVAL_MAX_MS,
+            FlinkConfig.CLICKHOUSE_TARGET_INSERT_LATENCY_MS,
+            FlinkConfig.CLICKHOUSE_TARGET_INSERT_PERIOD_MS
+        );
         
         executorService.scheduleAtFixedRate(
             this::flushIfNeeded, 
-            FLUSH_INTERVAL_MS, 
-            FLUSH_INTERVAL_MS, 
+            FlinkConfig.CLICKHOUSE_FLUSH_CHECK_MS, 
+            FlinkConfig.CLICKHOUSE_FLUSH_CHECK_MS, 
+            TimeUnit.MILLISECONDS
+        );
+        
+        executorService.scheduleAtFixedRate(
+            this::rollUpClosedWindowsQuietly,
+            FlinkConfig.COMPANY_METRICS_CLOSE_CHECK_MS,
+            FlinkConfig.COMPANY_METRICS_CLOSE_CHECK_MS,
             TimeUnit.MILLISECONDS
         );
         
@@ -71,31 +111,31 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
             30, 30, TimeUnit.SECONDS
         );
         
-        logger.info("ClickHouseSinkFunction initialized successfully with batch size {} and flush interval {}ms", 
-                   BATCH_SIZE, FLUSH_INTERVAL_MS);
+        logger.info("ClickHouseSinkFunction initialized successfully with adaptive flushing ({})", 
+                   flushController.operatingPoint());
     }
     
     @Override
-    public void invoke(BatchEvent event, Context context) throws Exception {
+    public void invoke(EventEnvelope envelope, Context context) throws Exception {
         eventsReceived.incrementAndGet();
         
-        if (!isAuditCompletionEvent(event)) {
+        if (!isAuditCompletionEvent(envelope.getEvent())) {
             return;
         }
         
         try {
-            MetricsEvent metricsEvent = createMetricsEvent(event);
+            MetricsEvent metricsEvent = createMetricsEvent(envelope);
             if (metricsEvent != null) {
                 synchronized (metricsBuffer) {
                     metricsBuffer.add(metricsEvent);
                     
-                    if (metricsBuffer.size() >= BATCH_SIZE) {
+                    if (metricsBuffer.size() >= flushController.batchSize()) {
                         flushBufferAsync();
                     }
                 }
             }
         } catch (Exception e) {
-            logger.error("Error creating metrics event from batch event: {}", event.getPayload().getObjectId(), e);
+            logger.error("Error creating metrics event from batch event: {}", envelope.getPayload().getObjectId(), e);
             writeErrors.incrementAndGet();
         }
     }
@@ -114,8 +154,8 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
         return "COMPLETE".equals(status) || "INVALID".equals(status);
     }
     
-    private MetricsEvent createMetricsEvent(BatchEvent batchEvent) {
-        BatchEvent.BatchPayload payload = batchEvent.getPayload();
+    private MetricsEvent createMetricsEvent(EventEnvelope envelope) {
+        BatchEvent.BatchPayload payload = envelope.getPayload();
         Map<String, String> metadata = payload.getMetadata();
         
         if (metadata == null) {
@@ -124,28 +164,26 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
         }
         
         try {
-            String companyName = extractCompanyName(metadata);
-            String companyId = metadata.get("company_id");
+            String companyName = envelope.getCompanyName();
+            String companyId = envelope.getCompanyId();
             
-            if (companyId == null && companyName != null) {
-                companyId = companyName.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
+            long amountCents = envelope.getAmountCents();
+            if (amountCents == AmountParser.INVALID) {
+                logger.warn("Failed to parse amount: {}", metadata.get("amount"));
+                amountCents = 0;
             }
             
-            BigDecimal amount = parseAmount(metadata.get("amount"));
-            
-            long processingTime = calculateProcessingTime(payload);
-            
             return MetricsEvent.builder()
-                    .eventId(UUID.randomUUID().toString())
+                    .eventId(envelope.getEventId().toString())
                     .auditId(payload.getObjectId())
                     .batchId(extractBatchId(metadata))
                     .companyId(companyId != null ? companyId : "UNKNOWN")
                     .companyName(companyName != null ? companyName : "Unknown Company")
-                    .amount(amount != null ? amount : BigDecimal.ZERO)
+                    .amountCents(amountCents)
                     .status(payload.getStatus())
                     .outcome(payload.getOutcome())
-                    .completedAt(Instant.now())
-                    .processingTimeMs(processingTime)
+                    .completedAt(envelope.getEventTime())
+                    .processingTimeMs(envelope.getProcessingTimeMs())
                     .build();
                     
         } catch (Exception e) {
@@ -154,86 +192,110 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
         }
     }
     
-    private String extractCompanyName(Map<String, String> metadata) {
-        String summary = metadata.get("summary");
-        if (summary != null && !summary.trim().isEmpty()) {
-            return summary.trim();
-        }
-        
-        String company = metadata.get("company");
-        if (company != null && !company.trim().isEmpty()) {
-            return company.trim();
-        }
-        
-        String companyName = metadata.get("company_name");
-        if (companyName != null && !companyName.trim().isEmpty()) {
-            return companyName.trim();
-        }
-        
-        String companyId = metadata.get("company_id");
-        return companyId != null ? "Company " + companyId : null;
-    }
-    
     private String extractBatchId(Map<String, String> metadata) {
         String batchId = metadata.get("batch_id");
         return batchId != null ? batchId : metadata.get("parent_id");
     }
     
-    private BigDecimal parseAmount(String amountStr) {
-        if (amountStr == null || amountStr.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        try {
-            String cleanAmount = amountStr.replaceAll("[^\\d.]", "");
-            return new BigDecimal(cleanAmount);
-        } catch (NumberFormatException e) {
-            logger.warn("Failed to parse amount: {}", amountStr);
-            return BigDecimal.ZERO;
-        }
-    }
-    
-    private long calculateProcessingTime(BatchEvent.BatchPayload payload) {
-        if (payload.getCreated() != null && payload.getUpdated() != null) {
-            return Duration.between(payload.getCreated(), payload.getUpdated()).toMillis();
-        }
-        return 0;
+    /**
+     * Current batch size, flush interval and the measurements the adaptive controller based them on.
+     */
+    public AdaptiveFlushController.OperatingPoint getFlushOperatingPoint() {
+        return flushController.operatingPoint();
     }
     
     private void flushIfNeeded() {
         synchronized (metricsBuffer) {
             long timeSinceLastFlush = System.currentTimeMillis() - lastFlushTime.get();
-            if (!metricsBuffer.isEmpty() && timeSinceLastFlush >= FLUSH_INTERVAL_MS) {
+            if (!metricsBuffer.isEmpty() && timeSinceLastFlush >= flushController.flushIntervalMs()) {
                 flushBufferAsync();
             }
         }
     }
     
     private void flushBufferAsync() {
-        List<MetricsEvent> eventsToFlush;
         synchronized (metricsBuffer) {
-            if (metricsBuffer.isEmpty()) {
+            if (metricsBuffer.isEmpty() || flushing) {
                 return;
             }
-            eventsToFlush = new ArrayList<>(metricsBuffer);
+            List<MetricsEvent> eventsToFlush = new ArrayList<>(metricsBuffer);
             metricsBuffer.clear();
             lastFlushTime.set(System.currentTimeMillis());
+            
+            CompletableFuture<Void> insert = CompletableFuture.runAsync(() -> {
+                try {
+                    insert(eventsToFlush);
+                } catch (Exception e) {
+                    logger.error("Failed to write {} events to ClickHouse, keeping them for the next flush", 
+                        eventsToFlush.size(), e);
+                }
+            }, executorService);
+            inFlightInserts.add(insert);
+            insert.whenComplete((result, exception) -> inFlightInserts.remove(insert));
         }
-        
-        CompletableFuture.runAsync(() -> {
-            try {
-                writeEventsToClickHouse(eventsToFlush);
-                eventsWritten.addAndGet(eventsToFlush.size());
-                logger.debug("Successfully wrote {} events to ClickHouse", eventsToFlush.size());
-            } catch (Exception e) {
-                logger.error("Failed to write {} events to ClickHouse", eventsToFlush.size(), e);
-                writeErrors.addAndGet(eventsToFlush.size());
+    }
+    
+    /**
+     * Writes every buffered row on the calling thread and waits for the inserts already
+     * running, so everything handed to the sink so far is in ClickHouse when it returns, and
+     * rolls up the closed windows those rows landed in. Callers flush before committing the
+     * offsets of those rows. Throws if rows could not be written; they stay buffered for the
+     * next flush. Rows of still open windows are recovered from audit_completions by the
+     * next run if this one stops before rolling them up.
+     */
+    public void flush() throws Exception {
+        List<CompletableFuture<Void>> running;
+        synchronized (metricsBuffer) {
+            // No new async inserts until this flush is done, so none can take rows past it
+            flushing = true;
+            running = List.copyOf(inFlightInserts);
+        }
+        try {
+            CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+            
+            List<MetricsEvent> eventsToFlush;
+            synchronized (metricsBuffer) {
+                eventsToFlush = new ArrayList<>(metricsBuffer);
+                metricsBuffer.clear();
+                lastFlushTime.set(System.currentTimeMillis());
             }
-        }, executorService).exceptionally(throwable -> {
-            logger.error("Async write to ClickHouse failed", throwable);
-            writeErrors.addAndGet(eventsToFlush.size());
-            return null;
-        });
+            if (!eventsToFlush.isEmpty()) {
+                insert(eventsToFlush);
+            }
+            rollUpClosedWindows();
+        } finally {
+            synchronized (metricsBuffer) {
+                flushing = false;
+            }
+        }
+    }
+    
+    /**
+     * Inserts the rows, reports the outcome to the flush controller and marks their windows
+     * for a rollup. Rows that could not be written go back to the front of the buffer;
+     * retried rows keep their event_id, so a partially applied insert does not add
+     * duplicates once read with FINAL.
+     */
+    private void insert(List<MetricsEvent> events) throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            writeEventsToClickHouse(events);
+        } catch (Exception e) {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            flushController.recordInsert(events.size(), latencyMs, false, System.currentTimeMillis());
+            writeErrors.addAndGet(events.size());
+            synchronized (metricsBuffer) {
+                metricsBuffer.addAll(0, events);
+            }
+            throw e;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        flushController.recordInsert(events.size(), latencyMs, true, System.currentTimeMillis());
+        eventsWritten.addAndGet(events.size());
+        for (MetricsEvent event : events) {
+            companyMetricsRollup.markWritten(event.getCompletedAt());
+        }
+        logger.debug("Successfully wrote {} events to ClickHouse in {}ms", events.size(), latencyMs);
     }
     
     private void writeEventsToClickHouse(List<MetricsEvent> events) throws Exception {
@@ -271,29 +333,105 @@ public class ClickHouseSinkFunction extends RichSinkFunction<BatchEvent> {
         }
     }
     
+    /**
+     * Marks every window from the newest one in company_metrics_summary up to now, so windows
+     * a previous run wrote rows for but stopped before rolling up are recomputed once closed.
+     */
+    private void markWindowsSinceLastRollup() {
+        long nowMs = System.currentTimeMillis();
+        long fromMs = nowMs - FlinkConfig.COMPANY_METRICS_WINDOW_MS - FlinkConfig.COMPANY_METRICS_ALLOWED_LATENESS_MS;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT count(), toUnixTimestamp(max(window_start)) FROM company_metrics_summary");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                fromMs = Math.min(fromMs, rs.getLong(2) * 1000);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read the last company metrics rollup, recomputing recent windows only", e);
+        }
+        companyMetricsRollup.markRange(fromMs, nowMs);
+    }
+    
+    private void rollUpClosedWindowsQuietly() {
+        try {
+            rollUpClosedWindows();
+        } catch (Exception e) {
+            logger.error("Failed to roll up company metrics windows, retrying on the next check", e);
+        }
+    }
+    
+    private void rollUpClosedWindows() throws Exception {
+        List<Instant> closed = companyMetricsRollup.takeClosed(System.currentTimeMillis());
+        if (closed.isEmpty()) {
+            return;
+        }
+        
+        try {
+            writeCompanyWindowRollups(closed);
+            windowsRolledUp.addAndGet(closed.size());
+            logger.debug("Rolled up {} closed company metrics windows", closed.size());
+        } catch (Exception e) {
+            companyMetricsRollup.restore(closed);
+            throw e;
+        }
+    }
+    
+    /**
+     * Recomputes each window from audit_completions FINAL. company_metrics_summary is a
+     * ReplacingMergeTree on (company_id, window_start) versioned by last_updated, so the
+     * newest rollup of a window replaces the earlier ones instead of adding to them.
+     */
+    private void writeCompanyWindowRollups(List<Instant> windowStarts) throws Exception {
+        String rollupSql = """
+            INSERT INTO company_metrics_summary (
+                window_start, company_id, company_name, total_events, total_amount,
+                success_events, failure_events, processing_time_sum_ms, processing_time_count, last_updated
+            )
+            SELECT
+                toDateTime(?) as window_start, company_id, any(company_name), count(), sum(amount),
+                countIf(outcome = 'SUCCESS'), countIf(outcome = 'FAILURE'),
+                sum(processing_time_ms), count(), now64(3)
+            FROM audit_completions FINAL
+            WHERE completed_at >= toDateTime(?) AND completed_at < toDateTime(?)
+            GROUP BY company_id
+        """;
+        
+        long windowSizeSeconds = FlinkConfig.COMPANY_METRICS_WINDOW_MS / 1000;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(rollupSql)) {
+             
+            for (Instant windowStart : windowStarts) {
+                long startSeconds = windowStart.getEpochSecond();
+                stmt.setLong(1, startSeconds);
+                stmt.setLong(2, startSeconds);
+                stmt.setLong(3, startSeconds + windowSizeSeconds);
+                stmt.executeUpdate();
+            }
+        }
+    }
+    
     private void logStats() {
         long received = eventsReceived.get();
         long written = eventsWritten.get();
         long errors = writeErrors.get();
         
-        logger.info("ClickHouse Sink Stats - Received: {}, Written: {}, Errors: {}, Buffer: {}", 
-                   received, written, errors, metricsBuffer.size());
+        logger.info("ClickHouse Sink Stats - Received: {}, Written: {}, Errors: {}, Buffer: {}, Pending windows: {}, Windows rolled up: {}, Flush: {}", 
+                   received, written, errors, metricsBuffer.size(), 
+                   companyMetricsRollup.pendingWindowCount(), windowsRolledUp.get(),
+                   flushController.operatingPoint());
     }
     
     @Override
     public void close() throws Exception {
         logger.info("Closing ClickHouse sink function...");
         
-        synchronized (metricsBuffer) {
-            if (!metricsBuffer.isEmpty()) {
-                try {
-                    writeEventsToClickHouse(metricsBuffer);
-                    eventsWritten.addAndGet(metricsBuffer.size());
-                    logger.info("Flushed {} remaining events during close", metricsBuffer.size());
-                } catch (Exception e) {
-                    logger.error("Failed to flush remaining events during close", e);
-                }
-            }
+        try {
+            long writtenBefore = eventsWritten.get();
+            flush();
+            logger.info("Flushed {} remaining events during close", eventsWritten.get() - writtenBefore);
+        } catch (Exception e) {
+            logger.error("Failed to flush {} remaining events during close", metricsBuffer.size(), e);
         }
         
         if (executorService != null) {
@@ -0,0 +1,176 @@
+package com.paydash.eventprocessor.sink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded parking area for items whose parent batch has not been written yet. Items are
+ * grouped by parent id so the whole group is released with one lookup when the batch
+ * arrives, and groups are kept in the order they were first parked so expiry only ever
+ * looks at the oldest ones. When the buffer is full the oldest group is evicted. Parents
+ * are handed out for rechecking least recently checked first, never-checked ones before
+ * all others, so every parked parent gets looked up in turn however many there are.
+ * <p>
+ * Not thread-safe; the owning sink calls it from its invoke thread.
+ */
+public class OrphanItemBuffer<T> {
+
+    private final int maxItems;
+    private final long timeoutMs;
+    private final Map<String, Group<T>> groups = new HashMap<>();
+    private final ArrayDeque<Group<T>> byAge = new ArrayDeque<>();
+    private final ArrayDeque<Group<T>> unchecked = new ArrayDeque<>();
+    private final ArrayDeque<Group<T>> byLastCheck = new ArrayDeque<>();
+    private int size;
+
+    public OrphanItemBuffer(int maxItems, long timeoutMs) {
+        if (maxItems <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("maxItems and timeoutMs must be positive");
+        }
+        this.maxItems = maxItems;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Parks an item under its parent. Returns the items evicted to make room, oldest group
+     * first; usually empty.
+     */
+    public List<T> park(String parentId, T item, long nowMs) {
+        List<T> evicted = Collections.emptyList();
+        while (size >= maxItems) {
+            Group<T> oldest = pollOldest();
+            if (evicted.isEmpty()) {
+                evicted = new ArrayList<>();
+            }
+            evicted.addAll(oldest.items);
+        }
+
+        Group<T> group = groups.get(parentId);
+        if (group == null) {
+            group = new Group<>(parentId, nowMs);
+            groups.put(parentId, group);
+            byAge.addLast(group);
+            unchecked.addLast(group);
+        }
+        group.items.add(item);
+        size++;
+        return evicted;
+    }
+
+    public boolean isParked(String parentId) {
+        return groups.containsKey(parentId);
+    }
+
+    /**
+     * Removes and returns every item parked under the parent, in arrival order.
+     */
+    public List<T> release(String parentId) {
+        Group<T> group = groups.remove(parentId);
+        if (group == null) {
+            return Collections.emptyList();
+        }
+        group.released = true;
+        size -= group.items.size();
+        return group.items;
+    }
+
+    /**
+     * Parent ids of up to {@code max} distinct parked groups to look up again: those never
+     * checked first, in the order they were parked, then the least recently checked. The
+     * returned parents count as checked now and go to the back of the rotation.
+     */
+    public List<String> parentsToRecheck(int max) {
+        int limit = Math.min(max, groups.size());
+        List<String> parents = new ArrayList<>(limit);
+        while (parents.size() < limit) {
+            Group<T> group = unchecked.pollFirst();
+            if (group == null) {
+                group = byLastCheck.pollFirst();
+            }
+            if (group == null) {
+                break;
+            }
+            if (!group.released) {
+                parents.add(group.parentId);
+                byLastCheck.addLast(group);
+            }
+        }
+        return parents;
+    }
+    
+    /**
+     * Removes and returns the items of every group first parked more than the timeout ago.
+     */
+    public List<T> expire(long nowMs) {
+        List<T> expired = Collections.emptyList();
+        while (true) {
+            Group<T> oldest = byAge.peekFirst();
+            if (oldest != null && oldest.released) {
+                byAge.pollFirst();
+                continue;
+            }
+            if (oldest == null || nowMs - oldest.parkedAtMs < timeoutMs) {
+                return expired;
+            }
+            pollOldest();
+            if (expired.isEmpty()) {
+                expired = new ArrayList<>();
+            }
+            expired.addAll(oldest.items);
+        }
+    }
+
+    /**
+     * Removes and returns everything still parked, e.g. on shutdown.
+     */
+    public List<T> drain() {
+        List<T> drained = new ArrayList<>(size);
+        for (Group<T> group : byAge) {
+            if (!group.released) {
+                drained.addAll(group.items);
+            }
+        }
+        groups.clear();
+        byAge.clear();
+        unchecked.clear();
+        byLastCheck.clear();
+        size = 0;
+        return drained;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int parentCount() {
+        return groups.size();
+    }
+
+    private Group<T> pollOldest() {
+        Group<T> oldest;
+        do {
+            oldest = byAge.pollFirst();
+        } while (oldest.released);
+        oldest.released = true;
+        groups.remove(oldest.parentId);
+        size -= oldest.items.size();
+        return oldest;
+    }
+
+    private static final class Group<T> {
+        final String parentId;
+        final long parkedAtMs;
+        final List<T> items = new ArrayList<>(4);
+        // Set once the group has left the buffer; the queues drop such groups lazily
+        boolean released;
+
+        Group(String parentId, long parkedAtMs) {
+            this.parentId = parentId;
+            this.parkedAtMs = parkedAtMs;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.paydash.eventprocessor.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.paydash.eventprocessor.model.BatchEvent;
+
+/**
+ * Field layouts for the queue:object:&lt;id&gt; hashes.
+ * <p>
+ * The legacy layout stores eight long-named fields including the full metadata map as a
+ * JSON string. The compact layout (v=2) uses one- and two-letter field names, epoch-second
+ * timestamps, and keeps only the metadata the queue view renders as separate short fields,
+ * so every value stays small enough for Redis to keep the hash listpack-encoded. The object
+ * id is implied by the key and the object type is always "batch". The API reads both.
+ */
+public final class QueueObjectCodec {
+    
+    public static final String COMPACT_VERSION = "2";
+    
+    /** Legacy field names, removed when a compact hash overwrites a legacy one. */
+    public static final String[] LEGACY_FIELDS = {
+        "objectId", "objectType", "status", "outcome", "created", "updated", "records", "metadata"
+    };
+    
+    /**
+     * Compact field names, removed when rolling back to the legacy layout. "u" is kept in
+     * both layouts as the version the newer-wins update script compares against.
+     */
+    public static final String[] COMPACT_FIELDS = {
+        "v", "s", "o", "c", "r", "ms", "mr", "ma", "mc", "mf"
+    };
+    
+    private static final String[] METADATA_KEYS = {"summary", "region", "amount", "currency", "formatted_amount"};
+    private static final String[] METADATA_FIELDS = {"ms", "mr", "ma", "mc", "mf"};
+    
+    private QueueObjectCodec() {}
+    
+    public static Map<String, String> encodeCompact(BatchEvent.BatchPayload payload) {
+        Map<String, String> fields = new HashMap<>(16);
+        fields.put("v", COMPACT_VERSION);
+        fields.put("s", payload.getStatus());
+        fields.put("o", payload.getOutcome() != null ? payload.getOutcome() : "");
+        fields.put("c", Long.toString(payload.getCreated().toEpochSecond(ZoneOffset.UTC)));
+        fields.put("u", Long.toString(payload.getUpdated().toEpochSecond(ZoneOffset.UTC)));
+        
+        Map<String, String> metadata = payload.getMetadata();
+        fields.put("r", metadata != null ? metadata.getOrDefault("records", "0") : "0");
+        if (metadata != null) {
+            for (int i = 0; i < METADATA_KEYS.length; i++) {
+                String value = metadata.get(METADATA_KEYS[i]);
+                if (value != null) {
+                    fields.put(METADATA_FIELDS[i], value);
+                }
+            }
+        }
+        return fields;
+    }
+    
+    /**
+     * @param metadataJson the payload metadata already serialized as JSON, or null if it has none
+     */
+    public static Map<String, String> encodeLegacy(BatchEvent.BatchPayload payload, String metadataJson) {
+        Map<String, String> queueObject = new HashMap<>();
+        queueObject.put("objectId", payload.getObjectId());
+        queueObject.put("objectType", payload.getObjectType());
+        queueObject.put("status", payload.getStatus());
+        queueObject.put("outcome", payload.getOutcome() != null ? payload.getOutcome() : "");
+        queueObject.put("created", payload.getCreated().toString());
+        queueObject.put("updated", payload.getUpdated().toString());
+        queueObject.put("records", payload.getMetadata() != null ? 
+            payload.getMetadata().getOrDefault("records", "0") : "0");
+        queueObject.put("metadata", metadataJson != null ? metadataJson : "{}");
+        return queueObject;
+    }
+    
+    /**
+     * Field names plus values in bytes, the part of a hash's footprint the layout controls.
+     */
+    public static int payloadBytes(Map<String, String> fields) {
+        int bytes = 0;
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            bytes += utf8Length(entry.getKey()) + utf8Length(entry.getValue());
+        }
+        return bytes;
+    }
+    
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
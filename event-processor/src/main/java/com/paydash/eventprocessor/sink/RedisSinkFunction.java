@@ -1,28 +1,53 @@
 package com.paydash.eventprocessor.sink;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.paydash.eventprocessor.config.FlinkConfig;
 import com.paydash.eventprocessor.model.BatchEvent;
+import com.paydash.eventprocessor.model.EventEnvelope;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
-public class RedisSinkFunction extends RichSinkFunction<BatchEvent> {
+public class RedisSinkFunction extends RichSinkFunction<EventEnvelope> {
     
     private static final Logger logger = LoggerFactory.getLogger(RedisSinkFunction.class);
     
+    private static final String QUEUE_OBJECTS_KEY = "queue:objects";
+    private static final String OBJECT_KEY_PREFIX = "queue:object:";
+    private static final String QUEUE_CHANGES_KEY = "queue:changes";
+    private static final String ITEMS_KEY_PREFIX = "queue:items:";
+    private static final String ROLLUP_KEY_PREFIX = "queue:rollup:";
+    private static final String QUEUE_UPDATE_SCRIPT = "/redis/queue-update.lua";
+    private static final String ITEM_ROLLUP_SCRIPT = "/redis/item-rollup.lua";
+    private static final String QUEUE_TRIM_SCRIPT = "/redis/queue-trim.lua";
+    private static final int QUEUE_TRIM_LIMIT = 1000; // members removed per write, so one trim stays short
+    
     private transient JedisPool jedisPool;
-    private transient ObjectMapper objectMapper;
+    private transient String queueUpdateScript;
+    private transient String queueUpdateSha;
+    private transient String itemRollupScript;
+    private transient String itemRollupSha;
+    private transient String queueTrimScript;
+    private transient String queueTrimSha;
+    private transient AtomicLong staleUpdatesSkipped;
     
     @Override
     public void open(Configuration parameters) throws Exception {
@@ -32,53 +57,215 @@ public class RedisSinkFunction extends RichSinkFunction<BatchEvent> {
         poolConfig.setMaxTotal(10);
         poolConfig.setMaxIdle(5);
         poolConfig.setMinIdle(1);
-        poolConfig.setTestOnBorrow(true);
+        poolConfig.setTestOnBorrow(false);
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setTimeBetweenEvictionRuns(Duration.ofSeconds(30));
+        poolConfig.setMinEvictableIdleTime(Duration.ofSeconds(60));
         
         jedisPool = new JedisPool(poolConfig, FlinkConfig.REDIS_HOST, FlinkConfig.REDIS_PORT);
         
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        queueUpdateScript = loadScript(QUEUE_UPDATE_SCRIPT);
+        itemRollupScript = loadScript(ITEM_ROLLUP_SCRIPT);
+        queueTrimScript = loadScript(QUEUE_TRIM_SCRIPT);
+        staleUpdatesSkipped = new AtomicLong(0);
+        try (Jedis jedis = jedisPool.getResource()) {
+            loadScripts(jedis);
+        }
         
         logger.info("RedisSinkFunction initialized successfully");
     }
     
     @Override
-    public void invoke(BatchEvent event, Context context) throws Exception {
-        try (Jedis jedis = jedisPool.getResource()) {
+    public void invoke(EventEnvelope envelope, Context context) throws Exception {
+        writeBatch(List.of(envelope));
+    }
+    
+    /**
+     * Writes the queue updates for all batch-level events, and the parent rollup moves for
+     * item events, in {@code events} through a single pipeline, so one poll costs one round
+     * trip regardless of its size.
+     */
+    public void writeBatch(List<EventEnvelope> events) throws Exception {
+        if (events.isEmpty()) {
+            return;
+        }
+        
+        List<EventEnvelope> updates = new ArrayList<>(events.size());
+        List<BatchEvent.BatchPayload> itemUpdates = new ArrayList<>();
+        for (EventEnvelope envelope : events) {
+            BatchEvent event = envelope.getEvent();
             BatchEvent.BatchPayload payload = event.getPayload();
             
-            if (!"batch".equals(payload.getObjectType())) {
+            if ("batch".equals(payload.getObjectType())) {
+                updates.add(envelope);
+            } else if (FlinkConfig.REDIS_ITEM_ROLLUPS_ENABLED && isRollupItem(event)) {
+                itemUpdates.add(payload);
+            } else {
                 logger.debug("Skipping non-batch object: {} (type: {})", payload.getObjectId(), payload.getObjectType());
-                return;
             }
-            
-            String objectKey = "queue:object:" + payload.getObjectId();
-            
-            Map<String, String> queueObject = new HashMap<>();
-            queueObject.put("objectId", payload.getObjectId());
-            queueObject.put("objectType", payload.getObjectType());
-            queueObject.put("status", payload.getStatus());
-            queueObject.put("outcome", payload.getOutcome() != null ? payload.getOutcome() : "");
-            queueObject.put("created", payload.getCreated().toString());
-            queueObject.put("updated", payload.getUpdated().toString());
-            queueObject.put("records", payload.getMetadata() != null ? 
-                payload.getMetadata().getOrDefault("records", "0") : "0");
-            queueObject.put("metadata", payload.getMetadata() != null ? 
-                objectMapper.writeValueAsString(payload.getMetadata()) : "{}");
-            
-            jedis.hset(objectKey, queueObject);
-            
-            double score = System.currentTimeMillis() / 1000.0;
-            jedis.zadd("queue:objects", score, payload.getObjectId());
-            
-            logger.debug("Successfully stored batch object in Redis: {}", payload.getObjectId());
-            
+        }
+        
+        if (updates.isEmpty() && itemUpdates.isEmpty()) {
+            return;
+        }
+        
+        try (Jedis jedis = jedisPool.getResource()) {
+            try {
+                applyUpdates(jedis, updates, itemUpdates);
+            } catch (JedisNoScriptException e) {
+                logger.warn("Queue scripts missing on Redis server, reloading");
+                loadScripts(jedis);
+                applyUpdates(jedis, updates, itemUpdates);
+            }
         } catch (Exception e) {
-            logger.error("Error storing object in Redis: {}", event.getPayload().getObjectId(), e);
+            logger.error("Error storing {} events in Redis", events.size(), e);
             throw e;
         }
     }
     
+    public long getStaleUpdatesSkipped() {
+        return staleUpdatesSkipped.get();
+    }
+    
+    private void applyUpdates(Jedis jedis, List<EventEnvelope> updates, 
+                              List<BatchEvent.BatchPayload> itemUpdates) throws Exception {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<Object>> results = new ArrayList<>(updates.size());
+        List<Response<Object>> itemResults = new ArrayList<>(itemUpdates.size());
+        
+        for (EventEnvelope envelope : updates) {
+            results.add(appendQueueUpdate(pipeline, envelope));
+        }
+        for (BatchEvent.BatchPayload payload : itemUpdates) {
+            itemResults.add(appendItemRollup(pipeline, payload));
+        }
+        Response<Object> trimResult = updates.isEmpty() ? null : appendQueueTrim(pipeline);
+        pipeline.sync();
+        
+        for (Response<Object> result : itemResults) {
+            result.get();
+        }
+        if (trimResult != null && trimResult.get() instanceof Long trimmed && trimmed > 0) {
+            logger.debug("Trimmed {} objects from the queue", trimmed);
+        }
+        
+        int skipped = 0;
+        for (Response<Object> result : results) {
+            if (Long.valueOf(0).equals(result.get())) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            staleUpdatesSkipped.addAndGet(skipped);
+            logger.debug("Skipped {} queue updates older than the stored state", skipped);
+        }
+        logger.debug("Successfully stored {} batch objects and {} item rollup updates in Redis", 
+            updates.size() - skipped, itemUpdates.size());
+    }
+    
+    /**
+     * Queues one newer-wins script call: hash, expiry, zset score (event time) and change
+     * record are written atomically, and only if the stored update is not newer.
+     */
+    private Response<Object> appendQueueUpdate(Pipeline pipeline, EventEnvelope envelope) {
+        BatchEvent.BatchPayload payload = envelope.getPayload();
+        String objectKey = OBJECT_KEY_PREFIX + payload.getObjectId();
+        
+        Map<String, String> fields;
+        String[] removedFields;
+        if (FlinkConfig.REDIS_COMPACT_ENCODING) {
+            fields = QueueObjectCodec.encodeCompact(payload);
+            removedFields = QueueObjectCodec.LEGACY_FIELDS;
+        } else {
+            fields = QueueObjectCodec.encodeLegacy(payload, envelope.getMetadataJson());
+            removedFields = QueueObjectCodec.COMPACT_FIELDS;
+        }
+        fields.remove("u");
+        
+        long ttl = isTerminalStatus(payload.getStatus()) ? 
+            FlinkConfig.REDIS_TERMINAL_OBJECT_TTL_SECONDS : 
+            FlinkConfig.REDIS_OBJECT_TTL_SECONDS;
+        
+        List<String> args = new ArrayList<>(7 + fields.size() * 2 + removedFields.length);
+        args.add(payload.getObjectId());
+        args.add(Long.toString(payload.getUpdated().toEpochSecond(ZoneOffset.UTC)));
+        args.add(payload.getStatus());
+        args.add(payload.getOutcome() != null ? payload.getOutcome() : "");
+        args.add(Long.toString(ttl));
+        args.add(Long.toString(FlinkConfig.REDIS_CHANGE_STREAM_MAXLEN));
+        args.add(Integer.toString(fields.size()));
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            args.add(field.getKey());
+            args.add(field.getValue());
+        }
+        args.addAll(List.of(removedFields));
+        
+        return pipeline.evalsha(queueUpdateSha, List.of(objectKey, QUEUE_OBJECTS_KEY, QUEUE_CHANGES_KEY), args);
+    }
+    
+    /**
+     * Queues one item rollup script call, moving the item from its previous status counter
+     * to the new one in queue:rollup:&lt;batchId&gt; so batch progress is a single HGETALL.
+     */
+    private Response<Object> appendItemRollup(Pipeline pipeline, BatchEvent.BatchPayload payload) {
+        String parentId = payload.getMetadata().get("parent_id");
+        
+        long ttl = isTerminalStatus(payload.getStatus()) ? 
+            FlinkConfig.REDIS_TERMINAL_OBJECT_TTL_SECONDS : 
+            FlinkConfig.REDIS_OBJECT_TTL_SECONDS;
+        
+        return pipeline.evalsha(itemRollupSha, 
+            List.of(ITEMS_KEY_PREFIX + parentId, ROLLUP_KEY_PREFIX + parentId),
+            List.of(
+                payload.getObjectId(),
+                Long.toString(payload.getUpdated().toEpochSecond(ZoneOffset.UTC)),
+                payload.getStatus(),
+                Long.toString(ttl)
+            ));
+    }
+    
+    /**
+     * Keeps queue:objects bounded to the configured time and count window so Redis
+     * memory follows the live queue rather than total history. The time window ends at the
+     * newest event time in the queue, not the wall clock, and the hashes of trimmed objects
+     * are deleted with them.
+     */
+    private Response<Object> appendQueueTrim(Pipeline pipeline) {
+        return pipeline.evalsha(queueTrimSha, List.of(QUEUE_OBJECTS_KEY), List.of(
+            OBJECT_KEY_PREFIX,
+            Long.toString(FlinkConfig.REDIS_QUEUE_RETENTION_MS / 1000),
+            Long.toString(FlinkConfig.REDIS_QUEUE_MAX_OBJECTS),
+            Integer.toString(QUEUE_TRIM_LIMIT)
+        ));
+    }
+    
+    private void loadScripts(Jedis jedis) {
+        queueUpdateSha = jedis.scriptLoad(queueUpdateScript);
+        itemRollupSha = jedis.scriptLoad(itemRollupScript);
+        queueTrimSha = jedis.scriptLoad(queueTrimScript);
+    }
+    
+    private boolean isRollupItem(BatchEvent event) {
+        BatchEvent.BatchPayload payload = event.getPayload();
+        return event.getEventType() != null && event.getEventType().startsWith("ITEM_") &&
+               "item".equals(payload.getObjectType()) &&
+               payload.getMetadata() != null && payload.getMetadata().get("parent_id") != null &&
+               payload.getStatus() != null && payload.getUpdated() != null;
+    }
+    
+    private static String loadScript(String resource) throws IOException {
+        try (InputStream in = RedisSinkFunction.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Script resource not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private boolean isTerminalStatus(String status) {
+        return "COMPLETE".equals(status) || "INVALID".equals(status);
+    }
+    
     @Override
     public void close() throws Exception {
         if (jedisPool != null) {
@@ -0,0 +1,81 @@
+package com.paydash.eventprocessor.util;
+
+/**
+ * Parses decimal amount strings such as {@code "65.40"}, {@code "$1,204.5"} or {@code "A$12"}
+ * directly into long cents without going through a regex or {@link java.math.BigDecimal}.
+ * Any character other than digits and a single decimal point is skipped; the third
+ * fractional digit rounds half-up and further digits are ignored.
+ */
+public final class AmountParser {
+    
+    public static final long INVALID = Long.MIN_VALUE;
+    
+    private static final int MAX_INTEGER_DIGITS = 16;
+    
+    private AmountParser() {}
+    
+    /**
+     * Returns the amount in cents, {@code 0} for a null or blank value, or {@link #INVALID}
+     * when the value holds more than one decimal point, no digits, or too many integer digits.
+     */
+    public static long parseCents(CharSequence value) {
+        if (value == null) {
+            return 0;
+        }
+        
+        int length = value.length();
+        long integerPart = 0;
+        int integerDigits = 0;
+        int fractionDigits = 0;
+        long fraction = 0;
+        boolean roundUp = false;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        boolean blank = true;
+        
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                blank = false;
+                int digit = c - '0';
+                if (!seenPoint) {
+                    if (integerPart != 0 || digit != 0) {
+                        integerDigits++;
+                    }
+                    if (integerDigits > MAX_INTEGER_DIGITS) {
+                        return INVALID;
+                    }
+                    integerPart = integerPart * 10 + digit;
+                } else if (fractionDigits < 2) {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                } else if (fractionDigits == 2) {
+                    roundUp = digit >= 5;
+                    fractionDigits++;
+                }
+            } else if (c == '.') {
+                if (seenPoint) {
+                    return INVALID;
+                }
+                seenPoint = true;
+                blank = false;
+            } else if (!Character.isWhitespace(c)) {
+                blank = false;
+            }
+        }
+        
+        if (blank) {
+            return 0;
+        }
+        if (!seenDigit) {
+            return INVALID;
+        }
+        
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = integerPart * 100 + fraction;
+        return roundUp ? cents + 1 : cents;
+    }
+}
@@ -0,0 +1,53 @@
+package com.paydash.eventprocessor.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache from company name to the derived company id (ASCII letters and digits,
+ * lower-cased). Company names are low-cardinality, so once the cache is full new names
+ * are simply derived without being cached instead of paying for an eviction policy.
+ */
+public class CompanyIdCache {
+    
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, String> companyIds;
+    
+    public CompanyIdCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.companyIds = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+    
+    public String companyIdFor(String companyName) {
+        if (companyName == null) {
+            return null;
+        }
+        
+        String companyId = companyIds.get(companyName);
+        if (companyId != null) {
+            return companyId;
+        }
+        
+        companyId = deriveCompanyId(companyName);
+        if (companyIds.size() < maxEntries) {
+            companyIds.putIfAbsent(companyName, companyId);
+        }
+        return companyId;
+    }
+    
+    public int size() {
+        return companyIds.size();
+    }
+    
+    static String deriveCompanyId(String companyName) {
+        StringBuilder sb = new StringBuilder(companyName.length());
+        for (int i = 0; i < companyName.length(); i++) {
+            char c = companyName.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                sb.append((char) (c + ('a' - 'A')));
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
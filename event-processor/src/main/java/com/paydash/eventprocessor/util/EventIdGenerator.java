@@ -0,0 +1,29 @@
+package com.paydash.eventprocessor.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered UUID (version 7 layout) generator backed by {@link ThreadLocalRandom}
+ * instead of the shared {@link java.security.SecureRandom} behind {@link UUID#randomUUID()}.
+ * Event ids only need to be unique, not unpredictable.
+ */
+public final class EventIdGenerator {
+    
+    private EventIdGenerator() {}
+    
+    public static UUID nextUuid() {
+        return nextUuid(System.currentTimeMillis());
+    }
+    
+    static UUID nextUuid(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+    
+    public static String nextId() {
+        return nextUuid().toString();
+    }
+}
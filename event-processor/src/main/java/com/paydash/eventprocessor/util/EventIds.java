@@ -0,0 +1,42 @@
+package com.paydash.eventprocessor.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import com.paydash.eventprocessor.model.BatchEvent;
+
+/**
+ * Content-derived identifiers and event-time timestamps, so that re-delivered Kafka
+ * records produce exactly the same rows in every sink. Cassandra writes then become
+ * idempotent overwrites and ClickHouse duplicates collapse in the ReplacingMergeTree.
+ */
+public final class EventIds {
+    
+    private EventIds() {}
+    
+    /**
+     * Name-based UUID over objectId, eventType, status and event timestamp. Falls back to a
+     * random time-ordered id if the event carries no timestamp or object id.
+     */
+    public static UUID forEvent(BatchEvent event) {
+        BatchEvent.BatchPayload payload = event.getPayload();
+        if (event.getTimestamp() == null || payload == null || payload.getObjectId() == null) {
+            return EventIdGenerator.nextUuid();
+        }
+        
+        String key = payload.getObjectId() + '|' + event.getEventType() + '|' + 
+                     payload.getStatus() + '|' + event.getTimestamp();
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Event timestamp as an instant (event timestamps are UTC), or now if it is missing.
+     */
+    public static Instant eventTime(BatchEvent event) {
+        return event.getTimestamp() != null ? 
+            event.getTimestamp().toInstant(ZoneOffset.UTC) : 
+            Instant.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.paydash.eventprocessor.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded pool of canonical string instances for low-cardinality values such as regions,
+ * currencies and company names, so buffered events share one copy of each value instead of
+ * retaining a fresh one per event. Like {@link CompanyIdCache}, once the pool is full new
+ * values are returned as-is rather than evicting anything.
+ */
+public class StringInterner {
+    
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, String> pool;
+    
+    public StringInterner(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.pool = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+    
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        String canonical = pool.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        
+        if (pool.size() < maxEntries) {
+            canonical = pool.putIfAbsent(value, value);
+            return canonical != null ? canonical : value;
+        }
+        return value;
+    }
+    
+    public int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,37 @@
+-- Moves one item between status counters of its batch rollup, applied atomically.
+--
+-- KEYS[1] queue:items:<batchId>   (itemId -> "<updated>:<status>")
+-- KEYS[2] queue:rollup:<batchId>  (status -> item count)
+-- ARGV[1] itemId   ARGV[2] updated (epoch seconds, event time)   ARGV[3] status
+-- ARGV[4] ttl seconds
+--
+-- Returns 1 if the counters moved, 0 if the item already had this status or the
+-- stored update is newer than the incoming one. On a same-second tie the status further
+-- along the lifecycle wins, as in queue-update.lua.
+
+local RANK = {RECEIVED = 1, VALIDATING = 2, ENRICHING = 3, PROCESSING = 4, COMPLETE = 5, INVALID = 5}
+
+local stored = redis.call('HGET', KEYS[1], ARGV[1])
+local previousStatus = nil
+if stored then
+    local separator = string.find(stored, ':', 1, true)
+    local storedUpdated = tonumber(string.sub(stored, 1, separator - 1))
+    previousStatus = string.sub(stored, separator + 1)
+    local incomingUpdated = tonumber(ARGV[2])
+    if storedUpdated > incomingUpdated or previousStatus == ARGV[3] then
+        return 0
+    end
+    if storedUpdated == incomingUpdated and (RANK[previousStatus] or 0) > (RANK[ARGV[3]] or 0) then
+        return 0
+    end
+end
+
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3])
+if previousStatus then
+    redis.call('HINCRBY', KEYS[2], previousStatus, -1)
+end
+redis.call('HINCRBY', KEYS[2], ARGV[3], 1)
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+redis.call('EXPIRE', KEYS[2], ARGV[4])
+
+return 1
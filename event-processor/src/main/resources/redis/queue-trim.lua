@@ -0,0 +1,50 @@
+-- Trims queue:objects to its time and count window and deletes the hashes of the
+-- members it removes, applied atomically.
+--
+-- KEYS[1] queue:objects
+-- ARGV[1] object key prefix (queue:object:)
+-- ARGV[2] retention seconds (0 disables)
+-- ARGV[3] max objects (0 disables)
+-- ARGV[4] max members removed per call
+--
+-- Scores are event time, so the retention cutoff is taken from the newest score rather
+-- than the wall clock; a seed or catch-up run writing historical times keeps its last
+-- retention window instead of having every update trimmed as soon as it is written.
+-- Returns the number of members removed.
+
+local limit = tonumber(ARGV[4])
+local trimmed = {}
+
+local retention = tonumber(ARGV[2])
+if retention > 0 then
+    local newest = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+    if newest[2] then
+        local cutoff = tonumber(newest[2]) - retention
+        trimmed = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. cutoff, 'LIMIT', 0, limit)
+    end
+end
+
+local maxObjects = tonumber(ARGV[3])
+if maxObjects > 0 and #trimmed < limit then
+    local excess = redis.call('ZCARD', KEYS[1]) - #trimmed - maxObjects
+    if excess > 0 then
+        -- Members below the cutoff are the lowest ranked, so skip past the ones already taken
+        local oldest = redis.call('ZRANGE', KEYS[1], #trimmed, #trimmed + math.min(excess, limit - #trimmed) - 1)
+        for _, member in ipairs(oldest) do
+            trimmed[#trimmed + 1] = member
+        end
+    end
+end
+
+if #trimmed == 0 then
+    return 0
+end
+
+local objectKeys = {}
+for i, member in ipairs(trimmed) do
+    objectKeys[i] = ARGV[1] .. member
+end
+redis.call('ZREM', KEYS[1], unpack(trimmed))
+redis.call('DEL', unpack(objectKeys))
+
+return #trimmed
@@ -0,0 +1,45 @@
+-- Newer-wins update of one queue object, applied atomically.
+--
+-- KEYS[1] queue:object:<id>   KEYS[2] queue:objects   KEYS[3] queue:changes
+-- ARGV[1] objectId            ARGV[2] updated (epoch seconds, event time)
+-- ARGV[3] status              ARGV[4] outcome
+-- ARGV[5] ttl seconds         ARGV[6] change stream MAXLEN (0 disables)
+-- ARGV[7] number of field/value pairs N, followed by N pairs to HSET,
+--         followed by field names to HDEL.
+--
+-- Returns 1 if applied, 0 if the stored update is newer than the incoming one.
+-- Timestamps have second resolution and an object can move through several statuses in
+-- one second, so a tie goes to the status further along the lifecycle.
+
+local RANK = {RECEIVED = 1, VALIDATING = 2, ENRICHING = 3, PROCESSING = 4, COMPLETE = 5, INVALID = 5}
+
+local stored = redis.call('HMGET', KEYS[1], 'u', 's', 'status')
+if stored[1] then
+    local storedUpdated = tonumber(stored[1])
+    local incomingUpdated = tonumber(ARGV[2])
+    if storedUpdated > incomingUpdated then
+        return 0
+    end
+    if storedUpdated == incomingUpdated and
+            (RANK[stored[2] or stored[3]] or 0) > (RANK[ARGV[3]] or 0) then
+        return 0
+    end
+end
+
+local count = tonumber(ARGV[7])
+local first = 8
+local last = first + count * 2 - 1
+
+redis.call('HSET', KEYS[1], 'u', ARGV[2], unpack(ARGV, first, last))
+if last < #ARGV then
+    redis.call('HDEL', KEYS[1], unpack(ARGV, last + 1, #ARGV))
+end
+redis.call('EXPIRE', KEYS[1], ARGV[5])
+redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+
+if tonumber(ARGV[6]) > 0 then
+    redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[6], '*',
+        'id', ARGV[1], 's', ARGV[3], 'o', ARGV[4], 'u', ARGV[2])
+end
+
+return 1
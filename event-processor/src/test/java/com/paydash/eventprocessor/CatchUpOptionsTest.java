@@ -0,0 +1,53 @@
+package com.paydash.eventprocessor;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatchUpOptionsTest {
+
+    @Test
+    void shouldStayInLiveModeWithoutCatchUpFlag() {
+        assertNull(CatchUpOptions.parse(new String[0]));
+    }
+
+    @Test
+    void shouldParseTimestampAndEndOffset() {
+        CatchUpOptions options = CatchUpOptions.parse(new String[] {
+            "--catch-up", "--from-timestamp=2024-05-01T00:00:00Z", "--to-offset=5000"
+        });
+
+        assertEquals(1714521600000L, options.fromTimestampMs());
+        assertNull(options.fromOffset());
+        assertEquals(5000L, options.toOffset());
+    }
+
+    @Test
+    void shouldDefaultToCommittedOffsetsAndCurrentEnd() {
+        CatchUpOptions options = CatchUpOptions.parse(new String[] {"--catch-up"});
+
+        assertEquals(new CatchUpOptions(null, null, null), options);
+    }
+
+    @Test
+    void shouldCommitToLiveGroupOnlyWhenResumingFromCommittedOffsets() {
+        assertEquals("items", new CatchUpOptions(null, null, 5000L).groupIdFor("items"));
+        assertEquals("items-catch-up", new CatchUpOptions(1714521600000L, null, null).groupIdFor("items"));
+        assertEquals("items-catch-up", new CatchUpOptions(null, 10L, null).groupIdFor("items"));
+    }
+
+    @Test
+    void shouldRejectInvalidCombinations() {
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--catch-up", "--from-offset=10", "--from-timestamp=2024-05-01T00:00:00Z"}));
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--catch-up", "--from-offset=10", "--to-offset=5"}));
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--from-offset=10"}));
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--catch-up", "--from-offset=-1"}));
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--catch-up", "--from-timestamp=yesterday"}));
+        assertThrows(IllegalArgumentException.class, () -> CatchUpOptions.parse(new String[] {
+            "--catchup"}));
+    }
+}
@@ -0,0 +1,81 @@
+package com.paydash.eventprocessor;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeferredLaneTest {
+
+    private static final TopicPartition P0 = new TopicPartition("batch-events", 0);
+    private static final TopicPartition P1 = new TopicPartition("batch-events", 1);
+
+    @Test
+    void shouldReturnDeferredRecordsInArrivalOrder() {
+        DeferredLane<String> lane = new DeferredLane<>();
+        lane.defer(P0, 10, "item-a");
+        lane.defer(P1, 5, "item-b");
+        lane.defer(P0, 12, "item-a");
+
+        assertEquals(3, lane.size());
+        assertEquals("item-a", lane.poll());
+        assertEquals("item-b", lane.poll());
+        assertEquals("item-a", lane.poll());
+        assertNull(lane.poll());
+        assertTrue(lane.isEmpty());
+    }
+
+    @Test
+    void shouldNotCommitPastTheOldestDeferredRecord() {
+        DeferredLane<String> lane = new DeferredLane<>();
+        lane.defer(P0, 10, "item-1");
+        lane.consumed(P0, 11);
+        lane.defer(P0, 12, "item-2");
+        lane.consumed(P0, 13);
+        lane.consumed(P1, 7);
+
+        assertEquals(Map.of(P0, 10L, P1, 8L), lane.committableOffsets());
+
+        lane.poll();
+        assertEquals(12L, lane.committableOffsets().get(P0));
+
+        lane.poll();
+        assertEquals(14L, lane.committableOffsets().get(P0));
+    }
+
+    @Test
+    void shouldNotCommitPastTheOldestHeldRecord() {
+        DeferredLane<String> lane = new DeferredLane<>();
+        lane.consumed(P0, 10);
+        lane.hold(P0, 10);
+        lane.consumed(P0, 11);
+        lane.hold(P0, 11);
+        lane.consumed(P0, 12);
+
+        assertEquals(10L, lane.committableOffsets().get(P0));
+
+        lane.release(P0, 10);
+        assertEquals(11L, lane.committableOffsets().get(P0));
+
+        lane.release(P0, 11);
+        assertEquals(13L, lane.committableOffsets().get(P0));
+        assertEquals(0, lane.heldCount());
+    }
+
+    @Test
+    void shouldForgetRevokedPartitions() {
+        DeferredLane<String> lane = new DeferredLane<>();
+        lane.defer(P0, 1, "item-1");
+        lane.defer(P1, 1, "item-2");
+        lane.hold(P0, 0);
+
+        lane.forget(List.of(P0));
+        lane.release(P0, 0);
+
+        assertEquals(1, lane.size());
+        assertEquals("item-2", lane.poll());
+        assertEquals(Map.of(P1, 2L), lane.committableOffsets());
+    }
+}
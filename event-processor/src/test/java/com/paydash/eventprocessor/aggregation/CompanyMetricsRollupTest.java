@@ -0,0 +1,56 @@
+package com.paydash.eventprocessor.aggregation;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompanyMetricsRollupTest {
+
+    private static final long HOUR_MS = 3600000;
+    private static final Instant WINDOW_START = Instant.parse("2024-01-15T10:00:00Z");
+
+    private CompanyMetricsRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new CompanyMetricsRollup(HOUR_MS, 60000);
+    }
+
+    @Test
+    void shouldMarkEachWindowOnceAndHandOutOnlyClosedOnes() {
+        rollup.markWritten(WINDOW_START.plusSeconds(60));
+        rollup.markWritten(WINDOW_START.plusSeconds(1800));
+        rollup.markWritten(WINDOW_START.plusSeconds(3600));
+
+        assertEquals(2, rollup.pendingWindowCount());
+        assertTrue(rollup.takeClosed(WINDOW_START.toEpochMilli() + HOUR_MS).isEmpty());
+
+        assertEquals(List.of(WINDOW_START), rollup.takeClosed(WINDOW_START.toEpochMilli() + HOUR_MS + 60000));
+        assertEquals(1, rollup.pendingWindowCount());
+    }
+
+    @Test
+    void shouldMarkAWindowAgainForLateRowsAndFailedRollups() {
+        long afterClose = WINDOW_START.toEpochMilli() + HOUR_MS + 60000;
+        rollup.markWritten(WINDOW_START);
+        assertEquals(1, rollup.takeClosed(afterClose).size());
+
+        rollup.markWritten(WINDOW_START.plusSeconds(10));
+        List<Instant> closed = rollup.takeClosed(afterClose);
+        assertEquals(List.of(WINDOW_START), closed);
+
+        rollup.restore(closed);
+        assertEquals(List.of(WINDOW_START), rollup.takeClosed(afterClose));
+    }
+
+    @Test
+    void shouldMarkEveryWindowInARange() {
+        rollup.markRange(WINDOW_START.plusSeconds(1800).toEpochMilli(), WINDOW_START.toEpochMilli() + 2 * HOUR_MS);
+
+        assertEquals(List.of(WINDOW_START, WINDOW_START.plusMillis(HOUR_MS), WINDOW_START.plusMillis(2 * HOUR_MS)),
+            rollup.takeClosed(WINDOW_START.toEpochMilli() + 4 * HOUR_MS));
+    }
+}
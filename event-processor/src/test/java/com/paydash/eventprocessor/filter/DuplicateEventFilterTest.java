@@ -0,0 +1,54 @@
+package com.paydash.eventprocessor.filter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.paydash.eventprocessor.model.BatchEvent;
+
+class DuplicateEventFilterTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    void shouldDropRedeliveredEventsOnly() {
+        DuplicateEventFilter filter = new DuplicateEventFilter(0.000001, 1024 * 1024, 3600000);
+
+        BatchEvent event = event("batch-1-0001");
+        assertFalse(filter.isDuplicate(event));
+        filter.markProcessed(event);
+
+        assertTrue(filter.isDuplicate(event("batch-1-0001")));
+        assertFalse(filter.isDuplicate(event("batch-1-0002")));
+        assertEquals(3, filter.getChecked());
+        assertEquals(1, filter.getDuplicates());
+    }
+
+    @Test
+    void shouldForgetEventsAfterTwoGenerations() {
+        DuplicateEventFilter filter = new DuplicateEventFilter(0.01, 64, 3600000);
+        long capacity = filter.getCapacityPerGeneration();
+
+        BatchEvent first = event("batch-1-0000");
+        filter.markProcessed(first);
+        for (int i = 1; i <= capacity * 2; i++) {
+            filter.markProcessed(event("batch-2-" + i));
+        }
+
+        assertFalse(filter.isDuplicate(first));
+    }
+
+    @Test
+    void shouldRejectInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateEventFilter(0, 1024, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateEventFilter(1, 1024, 1000));
+    }
+
+    private BatchEvent event(String objectId) {
+        BatchEvent.BatchPayload payload = new BatchEvent.BatchPayload(
+            objectId, "item", "COMPLETE", "SUCCESS", Map.of("parent_id", "batch-1"), TIMESTAMP, TIMESTAMP);
+        return new BatchEvent("ITEM_UPDATED", TIMESTAMP, payload);
+    }
+}
@@ -0,0 +1,71 @@
+package com.paydash.eventprocessor.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventprocessor.util.AmountParser;
+import com.paydash.eventprocessor.util.CompanyIdCache;
+import com.paydash.eventprocessor.util.EventIds;
+
+class EventEnvelopeTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 1, 15, 10, 2, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CompanyIdCache companyIdCache = new CompanyIdCache(100);
+
+    @Test
+    void shouldDeriveEverythingOnce() throws Exception {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("summary", " Acme Corp ");
+        metadata.put("amount", "£1,234.56");
+        BatchEvent event = event(metadata);
+
+        EventEnvelope envelope = EventEnvelope.of(event, objectMapper, companyIdCache);
+
+        assertEquals(EventIds.forEvent(event), envelope.getEventId());
+        assertEquals(Instant.parse("2024-01-15T10:02:30Z"), envelope.getEventTime());
+        assertEquals(Instant.parse("2024-01-15T10:00:00Z"), envelope.getCreated());
+        assertEquals(150_000, envelope.getProcessingTimeMs());
+        assertEquals(123_456, envelope.getAmountCents());
+        assertEquals("Acme Corp", envelope.getCompanyName());
+        assertEquals("acmecorp", envelope.getCompanyId());
+        assertEquals(metadata, objectMapper.readValue(envelope.getMetadataJson(), Map.class));
+    }
+
+    @Test
+    void shouldPreferExplicitCompanyIdAndReportInvalidAmount() throws Exception {
+        EventEnvelope envelope = EventEnvelope.of(
+            event(Map.of("company_id", "c-42", "amount", "1.2.3")), objectMapper, companyIdCache);
+
+        assertEquals("c-42", envelope.getCompanyId());
+        assertEquals("Company c-42", envelope.getCompanyName());
+        assertEquals(AmountParser.INVALID, envelope.getAmountCents());
+    }
+
+    @Test
+    void shouldTolerateMissingMetadataAndTimestamps() throws Exception {
+        BatchEvent event = new BatchEvent("OBJECT_CREATED", UPDATED, 
+            new BatchEvent.BatchPayload("batch-1", "batch", "PENDING", null, null, null, null));
+
+        EventEnvelope envelope = EventEnvelope.of(event, objectMapper, companyIdCache);
+
+        assertNull(envelope.getMetadataJson());
+        assertNull(envelope.getCompanyId());
+        assertNull(envelope.getCreated());
+        assertEquals(EventEnvelope.NO_TIME, envelope.getUpdatedMillis());
+        assertEquals(0, envelope.getProcessingTimeMs());
+    }
+
+    private BatchEvent event(Map<String, String> metadata) {
+        return new BatchEvent("ITEM_COMPLETED", UPDATED, 
+            new BatchEvent.BatchPayload("item-1", "item", "COMPLETE", "SUCCESS", metadata, CREATED, UPDATED));
+    }
+}
@@ -0,0 +1,78 @@
+package com.paydash.eventprocessor.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class EventMetadataTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void shouldBehaveLikeAMapForKnownAndUnknownKeys() {
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < EventMetadata.KEYS.length; i++) {
+            expected.put(EventMetadata.KEYS[i], "value-" + i);
+        }
+        expected.put("custom_field", "custom");
+
+        EventMetadata metadata = new EventMetadata(expected);
+
+        assertEquals(expected, metadata);
+        assertEquals(expected.hashCode(), metadata.hashCode());
+        assertEquals("custom", metadata.get("custom_field"));
+        assertEquals("value-0", metadata.remove("records"));
+        assertFalse(metadata.containsKey("records"));
+        assertEquals(expected.size() - 1, metadata.size());
+    }
+
+    @Test
+    void shouldDropNullValues() {
+        EventMetadata metadata = new EventMetadata();
+        metadata.put("region", "UK");
+        metadata.put("region", null);
+
+        assertTrue(metadata.isEmpty());
+        assertEquals("fallback", metadata.getOrDefault("region", "fallback"));
+    }
+
+    @Test
+    void shouldDeserializeIntoCompactMetadataWithSharedValues() throws Exception {
+        BatchEvent first = objectMapper.readValue(json("batch-1"), BatchEvent.class);
+        BatchEvent second = objectMapper.readValue(json("batch-2"), BatchEvent.class);
+
+        Map<String, String> metadata = first.getPayload().getMetadata();
+        assertInstanceOf(EventMetadata.class, metadata);
+        assertEquals("UK", metadata.get("region"));
+        assertEquals("12", metadata.get("records"));
+        assertEquals("x", metadata.get("extra"));
+        assertFalse(metadata.containsKey("outcome"));
+        assertSame(metadata.get("summary"), second.getPayload().getMetadata().get("summary"));
+        assertSame(metadata.get("currency"), second.getPayload().getMetadata().get("currency"));
+    }
+
+    @Test
+    void shouldSerializeAsAPlainObject() throws Exception {
+        BatchEvent event = objectMapper.readValue(json("batch-1"), BatchEvent.class);
+
+        Map<?, ?> roundTrip = objectMapper.readValue(
+            objectMapper.writeValueAsString(event.getPayload().getMetadata()), Map.class);
+
+        assertEquals(Map.of("region", "UK", "currency", "GBP", "summary", "Acme Corp", "records", "12", "extra", "x"),
+                     roundTrip);
+    }
+
+    private String json(String objectId) {
+        return """
+            {"eventType":"OBJECT_CREATED","timestamp":"2024-01-15T10:30:00Z","payload":{
+              "objectId":"%s","objectType":"batch","status":"PENDING",
+              "metadata":{"region":"UK","currency":"GBP","summary":"Acme Corp","records":12,"extra":"x","outcome":null},
+              "created":"2024-01-15T10:30:00Z","updated":"2024-01-15T10:30:00Z"}}
+            """.formatted(objectId);
+    }
+}
@@ -0,0 +1,86 @@
+package com.paydash.eventprocessor.sink;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveFlushControllerTest {
+
+    private AdaptiveFlushController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AdaptiveFlushController(100, 50000, 500, 10000, 1000, 1000);
+    }
+
+    @Test
+    void shouldGrowBatchSizeWithRowRateWhileInsertsAreFast() {
+        long now = 0;
+        for (int i = 0; i < 30; i++) {
+            now += 1000;
+            controller.recordInsert(20000, 200, true, now);
+        }
+
+        assertTrue(controller.batchSize() > 15000, "batch size should approach the observed rate");
+        long fillTimeMs = controller.batchSize() * 1000L / 20000;
+        assertTrue(Math.abs(controller.flushIntervalMs() - fillTimeMs) <= 1, 
+            "flush interval should be the time to fill one batch, was " + controller.flushIntervalMs());
+    }
+
+    @Test
+    void shouldNotShrinkTheIntervalBelowTheBatchFillTimeOnHealthyInserts() {
+        long now = 0;
+        for (int i = 0; i < 30; i++) {
+            now += 1000;
+            controller.recordInsert(2000, 50, true, now);
+        }
+
+        long fillTimeMs = controller.batchSize() * 1000L / 2000;
+        assertTrue(Math.abs(controller.flushIntervalMs() - fillTimeMs) <= 1);
+        assertTrue(controller.flushIntervalMs() > 500, "interval should not collapse to its minimum");
+    }
+
+    @Test
+    void shouldStayAtMinimumBatchSizeForLowTraffic() {
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            now += 500;
+            controller.recordInsert(2, 20, true, now);
+        }
+
+        assertEquals(100, controller.batchSize());
+        assertEquals(10000, controller.flushIntervalMs(), "a minimum batch takes longer than the maximum interval to fill");
+    }
+
+    @Test
+    void shouldBackOffOnErrorsAndSlowInserts() {
+        long now = 0;
+        for (int i = 0; i < 30; i++) {
+            now += 1000;
+            controller.recordInsert(20000, 200, true, now);
+        }
+        int healthyBatch = controller.batchSize();
+        long healthyInterval = controller.flushIntervalMs();
+
+        now += 1000;
+        controller.recordInsert(healthyBatch, 5000, false, now);
+        assertEquals(healthyBatch / 2, controller.batchSize());
+        assertEquals(healthyInterval * 2, controller.flushIntervalMs());
+        assertEquals(1, controller.operatingPoint().consecutiveErrors());
+
+        for (int i = 0; i < 5; i++) {
+            now += 1000;
+            controller.recordInsert(controller.batchSize(), 5000, true, now);
+        }
+        assertTrue(controller.batchSize() < healthyBatch / 2);
+        assertTrue(controller.flushIntervalMs() > healthyInterval * 2);
+        assertEquals(0, controller.operatingPoint().consecutiveErrors());
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFlushController(0, 10, 500, 1000, 1000, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFlushController(100, 10, 500, 1000, 1000, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFlushController(100, 1000, 2000, 1000, 1000, 1000));
+    }
+}
@@ -0,0 +1,87 @@
+package com.paydash.eventprocessor.sink;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrphanItemBufferTest {
+
+    @Test
+    void shouldReleaseAllItemsOfAParentInArrivalOrder() {
+        OrphanItemBuffer<String> buffer = new OrphanItemBuffer<>(10, 1000);
+        buffer.park("batch-1", "item-1", 0);
+        buffer.park("batch-2", "item-2", 0);
+        buffer.park("batch-1", "item-3", 10);
+
+        assertTrue(buffer.isParked("batch-1"));
+        assertEquals(List.of("item-1", "item-3"), buffer.release("batch-1"));
+        assertFalse(buffer.isParked("batch-1"));
+        assertEquals(List.of(), buffer.release("batch-1"));
+        assertEquals(1, buffer.size());
+        assertEquals(1, buffer.parentCount());
+    }
+
+    @Test
+    void shouldExpireOnlyGroupsOlderThanTheTimeout() {
+        OrphanItemBuffer<String> buffer = new OrphanItemBuffer<>(10, 1000);
+        buffer.park("batch-1", "item-1", 0);
+        buffer.park("batch-2", "item-2", 500);
+        buffer.park("batch-3", "item-3", 600);
+        buffer.release("batch-2");
+
+        assertEquals(List.of(), buffer.expire(999));
+        assertEquals(List.of("item-1"), buffer.expire(1000));
+        assertEquals(List.of("item-3"), buffer.expire(1600));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void shouldEvictOldestGroupWhenFull() {
+        OrphanItemBuffer<String> buffer = new OrphanItemBuffer<>(3, 1000);
+        buffer.park("batch-1", "item-1", 0);
+        buffer.park("batch-1", "item-2", 0);
+        buffer.park("batch-2", "item-3", 1);
+
+        assertEquals(List.of("item-1", "item-2"), buffer.park("batch-3", "item-4", 2));
+        assertFalse(buffer.isParked("batch-1"));
+        assertEquals(2, buffer.size());
+        assertEquals(List.of("item-3", "item-4"), buffer.drain());
+        assertEquals(0, buffer.parentCount());
+    }
+
+    @Test
+    void shouldRecheckNeverCheckedParentsFirstThenRotate() {
+        OrphanItemBuffer<String> buffer = new OrphanItemBuffer<>(10, 1000);
+        buffer.park("batch-1", "item-1", 0);
+        buffer.park("batch-2", "item-2", 1);
+        buffer.park("batch-3", "item-3", 2);
+        buffer.park("batch-1", "item-4", 3);
+
+        assertEquals(List.of("batch-1", "batch-2"), buffer.parentsToRecheck(2));
+        assertEquals(List.of("batch-3", "batch-1"), buffer.parentsToRecheck(2));
+
+        buffer.park("batch-4", "item-5", 4);
+        assertEquals(List.of("batch-4", "batch-2"), buffer.parentsToRecheck(2));
+        assertEquals(List.of("batch-3", "batch-1", "batch-4", "batch-2"), buffer.parentsToRecheck(10));
+    }
+
+    @Test
+    void shouldNotRecheckReleasedOrExpiredParents() {
+        OrphanItemBuffer<String> buffer = new OrphanItemBuffer<>(10, 1000);
+        buffer.park("batch-1", "item-1", 0);
+        buffer.park("batch-2", "item-2", 500);
+        buffer.park("batch-3", "item-3", 600);
+        buffer.parentsToRecheck(1);
+        buffer.release("batch-2");
+        buffer.expire(1200);
+
+        assertEquals(List.of("batch-3"), buffer.parentsToRecheck(5));
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new OrphanItemBuffer<String>(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new OrphanItemBuffer<String>(10, 0));
+    }
+}
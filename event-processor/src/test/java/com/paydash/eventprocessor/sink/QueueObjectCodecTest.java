@@ -0,0 +1,56 @@
+package com.paydash.eventprocessor.sink;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paydash.eventprocessor.model.BatchEvent;
+
+class QueueObjectCodecTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    void shouldEncodeOnlyQueueViewFieldsWithShortNames() {
+        Map<String, String> fields = QueueObjectCodec.encodeCompact(payload());
+
+        assertEquals("2", fields.get("v"));
+        assertEquals("PROCESSING", fields.get("s"));
+        assertEquals("1705314600", fields.get("c"));
+        assertEquals("1705314645", fields.get("u"));
+        assertEquals("5", fields.get("r"));
+        assertEquals("Legal & General", fields.get("ms"));
+        assertEquals("£65.42", fields.get("mf"));
+        assertFalse(fields.containsKey("metadata"));
+        assertTrue(fields.values().stream().allMatch(v -> v.length() <= 64), "values must stay listpack-sized");
+    }
+
+    @Test
+    void shouldBeAFractionOfTheLegacyLayout() throws Exception {
+        BatchEvent.BatchPayload payload = payload();
+        String metadataJson = new ObjectMapper().writeValueAsString(payload.getMetadata());
+        int legacy = QueueObjectCodec.payloadBytes(QueueObjectCodec.encodeLegacy(payload, metadataJson));
+        int compact = QueueObjectCodec.payloadBytes(QueueObjectCodec.encodeCompact(payload()));
+
+        assertTrue(compact * 3 < legacy, "compact=" + compact + " legacy=" + legacy);
+    }
+
+    private BatchEvent.BatchPayload payload() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("records", "5");
+        metadata.put("source", "automated");
+        metadata.put("batch", "417");
+        metadata.put("priority", "normal");
+        metadata.put("summary", "Legal & General");
+        metadata.put("region", "UK");
+        metadata.put("currency", "GBP");
+        metadata.put("amount", "65.42");
+        metadata.put("formatted_amount", "£65.42");
+        return new BatchEvent.BatchPayload("0b7e3d7c-4f4a-4f7e-9d55-1b2f1c0e9a11", "batch", "PROCESSING", "-",
+            metadata, CREATED, CREATED.plusSeconds(45));
+    }
+}
@@ -0,0 +1,41 @@
+package com.paydash.eventprocessor.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountParserTest {
+
+    @Test
+    void shouldParsePlainDecimalAmounts() {
+        assertEquals(6540, AmountParser.parseCents("65.40"));
+        assertEquals(6540, AmountParser.parseCents("65.4"));
+        assertEquals(6500, AmountParser.parseCents("65"));
+        assertEquals(6500, AmountParser.parseCents("65."));
+        assertEquals(5, AmountParser.parseCents(".05"));
+        assertEquals(0, AmountParser.parseCents("0.00"));
+    }
+
+    @Test
+    void shouldSkipCurrencySymbolsAndSeparators() {
+        assertEquals(120450, AmountParser.parseCents("$1,204.50"));
+        assertEquals(1200, AmountParser.parseCents("A$12"));
+        assertEquals(999, AmountParser.parseCents(" £9.99 "));
+    }
+
+    @Test
+    void shouldRoundHalfUpOnThirdFractionDigit() {
+        assertEquals(1235, AmountParser.parseCents("12.345"));
+        assertEquals(1234, AmountParser.parseCents("12.3449"));
+        assertEquals(100, AmountParser.parseCents("0.995"));
+    }
+
+    @Test
+    void shouldTreatBlankAsZeroAndRejectMalformedValues() {
+        assertEquals(0, AmountParser.parseCents(null));
+        assertEquals(0, AmountParser.parseCents(""));
+        assertEquals(0, AmountParser.parseCents("   "));
+        assertEquals(AmountParser.INVALID, AmountParser.parseCents("1.2.3"));
+        assertEquals(AmountParser.INVALID, AmountParser.parseCents("N/A"));
+        assertEquals(AmountParser.INVALID, AmountParser.parseCents("12345678901234567"));
+    }
+}
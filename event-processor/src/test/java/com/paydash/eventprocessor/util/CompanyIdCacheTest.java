@@ -0,0 +1,17 @@
+package com.paydash.eventprocessor.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompanyIdCacheTest {
+
+    @Test
+    void shouldDeriveCompanyIdsWithoutRegex() {
+        CompanyIdCache cache = new CompanyIdCache(1);
+
+        assertEquals("att", cache.companyIdFor("AT&T"));
+        assertEquals("lvgeneralinsurance", cache.companyIdFor("LV= General Insurance"));
+        assertEquals(1, cache.size());
+        assertNull(cache.companyIdFor(null));
+    }
+}
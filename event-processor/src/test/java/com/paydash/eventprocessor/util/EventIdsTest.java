@@ -0,0 +1,40 @@
+package com.paydash.eventprocessor.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.paydash.eventprocessor.model.BatchEvent;
+
+class EventIdsTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    void shouldDeriveSameIdForRedeliveredEvent() {
+        assertEquals(EventIds.forEvent(event("batch-1-0001", "COMPLETE")), 
+                     EventIds.forEvent(event("batch-1-0001", "COMPLETE")));
+    }
+
+    @Test
+    void shouldDeriveDistinctIdsForDistinctEvents() {
+        assertNotEquals(EventIds.forEvent(event("batch-1-0001", "COMPLETE")), 
+                        EventIds.forEvent(event("batch-1-0002", "COMPLETE")));
+        assertNotEquals(EventIds.forEvent(event("batch-1-0001", "PROCESSING")), 
+                        EventIds.forEvent(event("batch-1-0001", "COMPLETE")));
+    }
+
+    @Test
+    void shouldUseEventTimeAsUtc() {
+        assertEquals(Instant.parse("2024-01-15T10:30:00Z"), EventIds.eventTime(event("batch-1-0001", "COMPLETE")));
+    }
+
+    private BatchEvent event(String objectId, String status) {
+        BatchEvent.BatchPayload payload = new BatchEvent.BatchPayload(
+            objectId, "item", status, "-", Map.of("parent_id", "batch-1"), TIMESTAMP, TIMESTAMP);
+        return new BatchEvent("ITEM_UPDATED", TIMESTAMP, payload);
+    }
+}
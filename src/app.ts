@@ -24,7 +24,7 @@ export const createApp = (redisService: RedisService, auditService: AuditService
   });
 
   app.use('/api/queue', createQueueRoutes(redisService, cassandraService));
-  app.use('/api/audit', createAuditRoutes(cassandraService));
+  app.use('/api/audit', createAuditRoutes(cassandraService, redisService));
   app.use('/api/monitoring', createMonitoringRoutes());
   app.use('/api/metrics', metricsRoutes);
 
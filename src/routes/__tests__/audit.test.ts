@@ -1,20 +1,27 @@
 import express from 'express';
 import request from 'supertest';
 import { createAuditRoutes } from '../audit';
-import { CassandraService } from '../../services';
+import { CassandraService, RedisService } from '../../services';
 import { AuditEntry, AuditAction, Status } from '../../models';
 
 // Mock CassandraService
 const mockGetAuditEntriesByObjectId = jest.fn();
 const mockGetAllAuditEntries = jest.fn();
+const mockGetItemAuditStatsByParentId = jest.fn();
+const mockGetBatchItemRollup = jest.fn();
 
 const mockCassandraService = {
   getAuditEntriesByObjectId: mockGetAuditEntriesByObjectId,
   getAllAuditEntries: mockGetAllAuditEntries,
+  getItemAuditStatsByParentId: mockGetItemAuditStatsByParentId,
 } as unknown as CassandraService;
 
+const mockRedisService = {
+  getBatchItemRollup: mockGetBatchItemRollup,
+} as unknown as RedisService;
+
 const app = express();
-app.use('/audit', createAuditRoutes(mockCassandraService));
+app.use('/audit', createAuditRoutes(mockCassandraService, mockRedisService));
 
 describe('Audit Routes', () => {
   beforeEach(() => {
@@ -103,6 +110,35 @@ describe('Audit Routes', () => {
       });
   });
 
+  describe('GET /audit/items/parent/:parentId/stats', () => {
+    it('should read item counts from the Redis rollup', async () => {
+      mockGetBatchItemRollup.mockResolvedValue({ COMPLETE: 3, VALIDATING: 2 });
+
+      const res = await request(app).get('/audit/items/parent/batch-1/stats');
+
+      expect(res.status).toBe(200);
+      expect(res.body.data.totalItems).toBe(5);
+      expect(res.body.data.byStatus).toEqual({ COMPLETE: 3, VALIDATING: 2 });
+      expect(mockGetItemAuditStatsByParentId).not.toHaveBeenCalled();
+    });
+
+    it('should fall back to Cassandra when the rollup is missing', async () => {
+      mockGetBatchItemRollup.mockResolvedValue(null);
+      mockGetItemAuditStatsByParentId.mockResolvedValue({
+        totalItems: 1,
+        byStatus: { COMPLETE: 1 },
+        parentId: 'batch-1',
+        lastUpdated: new Date(),
+      });
+
+      const res = await request(app).get('/audit/items/parent/batch-1/stats');
+
+      expect(res.status).toBe(200);
+      expect(res.body.data.totalItems).toBe(1);
+      expect(mockGetItemAuditStatsByParentId).toHaveBeenCalledWith('batch-1');
+    });
+  });
+
   describe('GET /audit/stream', () => {
     it('should return a server-sent event stream', async () => {
         const res = await request(app).get('/audit/stream');
@@ -1,10 +1,30 @@
 import { Router, Request, Response } from 'express';
-import { CassandraService } from '../services';
+import { CassandraService, RedisService } from '../services';
+import { ItemAuditStats } from '../models';
 import { logger } from '../utils';
 
 const router = Router();
 
-export const createAuditRoutes = (cassandraService: CassandraService): Router => {
+export const createAuditRoutes = (cassandraService: CassandraService, redisService: RedisService): Router => {
+  // Item counts per status come from the rollup the processor keeps in Redis. The Cassandra
+  // scan of audit rows is only used when a batch has no rollup hash or Redis is unavailable.
+  const getItemStats = async (parentId: string): Promise<ItemAuditStats> => {
+    try {
+      const rollup = await redisService.getBatchItemRollup(parentId);
+      if (rollup !== null) {
+        return {
+          totalItems: Object.values(rollup).reduce((sum, count) => sum + count, 0),
+          byStatus: rollup,
+          parentId,
+          lastUpdated: new Date()
+        };
+      }
+    } catch (error) {
+      logger.warn(`Item rollup unavailable for ${parentId}, falling back to Cassandra:`, error);
+    }
+    return cassandraService.getItemAuditStatsByParentId(parentId);
+  };
+
   router.get('/object/:objectType/:objectId', async (req: Request, res: Response) => {
     try {
       const { objectType, objectId } = req.params;
@@ -156,7 +176,7 @@ export const createAuditRoutes = (cassandraService: CassandraService): Router =>
       const limit = parseInt(req.query.limit as string) || 100;
       
       const itemAudits = await cassandraService.getAuditEntriesByParentId(parentId, limit);
-      const stats = await cassandraService.getItemAuditStatsByParentId(parentId);
+      const stats = await getItemStats(parentId);
       
       res.json({
         success: true,
@@ -179,7 +199,7 @@ export const createAuditRoutes = (cassandraService: CassandraService): Router =>
     try {
       const { parentId } = req.params;
       
-      const stats = await cassandraService.getItemAuditStatsByParentId(parentId);
+      const stats = await getItemStats(parentId);
       
       res.json({
         success: true,
@@ -1,10 +1,12 @@
 import { Router, Request, Response } from 'express';
-import { RedisService, CassandraService } from '../services';
+import { RedisService, CassandraService, QueueChangeFeed } from '../services';
 import { logger } from '../utils';
 
 const router = Router();
 
 export const createQueueRoutes = (redisService: RedisService, cassandraService: CassandraService): Router => {
+  const changeFeed = new QueueChangeFeed(redisService);
+
   router.get('/', async (req: Request, res: Response) => {
     try {
       const limit = parseInt(req.query.limit as string) || 100;
@@ -75,6 +77,28 @@ export const createQueueRoutes = (redisService: RedisService, cassandraService:
     }
   });
 
+  router.get('/:batchId/items/summary', async (req: Request, res: Response) => {
+    try {
+      const rollup = await redisService.getBatchItemRollup(req.params.batchId) || {};
+      const total = Object.values(rollup).reduce((sum, count) => sum + count, 0);
+
+      res.json({
+        success: true,
+        data: {
+          batchId: req.params.batchId,
+          total,
+          byStatus: rollup
+        }
+      });
+    } catch (error) {
+      logger.error('Error fetching batch item summary:', error);
+      res.status(500).json({
+        success: false,
+        message: 'Failed to fetch batch item summary'
+      });
+    }
+  });
+
   router.delete('/clear', async (req: Request, res: Response) => {
     try {
       res.status(405).json({
@@ -100,66 +124,82 @@ export const createQueueRoutes = (redisService: RedisService, cassandraService:
     });
 
     let isConnected = true;
+    let unsubscribe: (() => void) | null = null;
+    const limit = parseInt(req.query.limit as string) || 100;
 
-    const sendUpdate = async () => {
+    const write = (payload: object) => {
       if (!isConnected || res.destroyed) return;
-      
       try {
-        const limit = parseInt(req.query.limit as string) || 100;
-        const objects = await redisService.getQueueObjects(limit);
-        
-        const data = {
-          success: true,
-          data: objects,
-          count: objects.length,
-          timestamp: new Date().toISOString()
-        };
+        res.write(`data: ${JSON.stringify(payload)}\n\n`);
+      } catch (writeError) {
+        logger.error('Failed to write to SSE stream:', writeError);
+        disconnect();
+      }
+    };
 
-        if (isConnected && !res.destroyed) {
-          res.write(`data: ${JSON.stringify(data)}\n\n`);
-        }
-      } catch (error) {
-        logger.error('Error in SSE stream:', error);
-        if (isConnected && !res.destroyed) {
-          try {
-            res.write(`data: ${JSON.stringify({ 
-              success: false, 
-              error: 'Failed to fetch queue data',
-              timestamp: new Date().toISOString()
-            })}\n\n`);
-          } catch (writeError) {
-            logger.error('Failed to write error to SSE stream:', writeError);
-            isConnected = false;
-          }
-        }
+    // Keeps idle connections open through proxies; no data is read for it
+    const heartbeatId = setInterval(() => {
+      if (isConnected && !res.destroyed) {
+        res.write(': heartbeat\n\n');
+      }
+    }, 30000);
+
+    const disconnect = () => {
+      isConnected = false;
+      clearInterval(heartbeatId);
+      if (unsubscribe) {
+        unsubscribe();
+        unsubscribe = null;
       }
     };
 
-    const intervalId = setInterval(sendUpdate, 5000);
+    // One snapshot on connect, then only the objects named in new queue:changes records.
+    // Subscribing first means no change between the snapshot and the first delta is missed.
+    unsubscribe = changeFeed.subscribe((objects) => {
+      write({
+        success: true,
+        type: 'changes',
+        data: objects,
+        count: objects.length,
+        timestamp: new Date().toISOString()
+      });
+    });
 
-    sendUpdate();
+    try {
+      const objects = await redisService.getQueueObjects(limit);
+      write({
+        success: true,
+        type: 'snapshot',
+        data: objects,
+        count: objects.length,
+        timestamp: new Date().toISOString()
+      });
+    } catch (error) {
+      logger.error('Error in SSE stream:', error);
+      write({
+        success: false,
+        error: 'Failed to fetch queue data',
+        timestamp: new Date().toISOString()
+      });
+    }
 
     req.on('close', () => {
-      isConnected = false;
-      clearInterval(intervalId);
+      disconnect();
       logger.info('SSE client disconnected');
     });
 
     req.on('error', (error) => {
-      isConnected = false;
+      disconnect();
       logger.error('SSE connection error:', error);
-      clearInterval(intervalId);
     });
 
     res.on('error', (error) => {
-      isConnected = false;
+      disconnect();
       logger.error('SSE response error:', error);
-      clearInterval(intervalId);
     });
 
     res.on('close', () => {
-      isConnected = false;
-      clearInterval(intervalId);
+      disconnect();
     });
   });
 
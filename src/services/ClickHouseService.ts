@@ -60,6 +60,16 @@ export interface PerformanceMetrics {
     total_processed: number;
 }
 
+/**
+ * Hours before this cutoff have been closed by the event processor and rolled up from
+ * audit_completions into company_metrics_summary (window end + 5 minutes allowed lateness
+ * + one close check). Completions after it are still in open windows and are read from
+ * audit_completions.
+ * audit_completions only collapses replayed rows on merge, so reads of it dedupe by
+ * event_id with FINAL or LIMIT 1 BY.
+ */
+const SUMMARY_CLOSED_BEFORE = 'toStartOfHour(now() - INTERVAL 6 MINUTE)';
+
 class ClickHouseService {
     private client: ClickHouseClient;
     private isConnected: boolean = false;
@@ -127,19 +137,54 @@ class ClickHouseService {
         }
     }
 
+    /**
+     * Hourly per-company metrics from `since` onwards: closed hours from the processor's
+     * pre-aggregates, plus the open hours aggregated from audit_completions.
+     */
+    private companyHourlyMetrics(since: string): string {
+        return `
+            SELECT
+                window_start as hour,
+                company_id,
+                company_name,
+                total_events,
+                total_amount,
+                success_events,
+                failure_events,
+                processing_time_sum_ms,
+                processing_time_count
+            FROM v_company_metrics_summary
+            WHERE window_start >= toStartOfHour(${since})
+              AND window_start < ${SUMMARY_CLOSED_BEFORE}
+            UNION ALL
+            SELECT
+                toStartOfHour(completed_at) as hour,
+                company_id,
+                company_name,
+                count(),
+                sum(amount),
+                countIf(outcome = 'SUCCESS'),
+                countIf(outcome = 'FAILURE'),
+                sum(processing_time_ms),
+                count()
+            FROM audit_completions FINAL
+            WHERE completed_at >= greatest(toStartOfHour(${since}), ${SUMMARY_CLOSED_BEFORE})
+            GROUP BY hour, company_id, company_name
+        `;
+    }
+
     async getTodaySummary(): Promise<TodaySummary> {
         try {
             const result = await this.client.query({
                 query: `
                     SELECT
-                        count() as total_events,
-                        sum(amount) as total_amount,
-                        countIf(outcome = 'SUCCESS') as success_events,
-                        countIf(outcome = 'FAILURE') as failure_events,
-                        if(count() > 0, countIf(outcome = 'SUCCESS') * 100.0 / count(), 0) as success_rate,
-                        if(count() > 0, sum(amount) / count(), 0) as avg_amount_per_event
-                    FROM audit_completions
-                    WHERE toDate(completed_at) = today()
+                        sum(total_events) as total_events,
+                        sum(total_amount) as total_amount,
+                        sum(success_events) as success_events,
+                        sum(failure_events) as failure_events,
+                        if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate,
+                        if(total_events > 0, total_amount / total_events, 0) as avg_amount_per_event
+                    FROM (${this.companyHourlyMetrics('toDateTime(today())')})
                 `,
                 format: 'JSON',
             });
@@ -177,15 +222,14 @@ class ClickHouseService {
                 query: `
                     SELECT
                         company_id,
-                        company_name,
-                        count() as total_events,
-                        sum(amount) as total_amount,
-                        countIf(outcome = 'SUCCESS') as success_events,
-                        countIf(outcome = 'FAILURE') as failure_events,
-                        if(count() > 0, countIf(outcome = 'SUCCESS') * 100.0 / count(), 0) as success_rate
-                    FROM audit_completions
-                    WHERE toDate(completed_at) = today()
-                    GROUP BY company_id, company_name
+                        any(company_name) as company_name,
+                        sum(total_events) as total_events,
+                        sum(total_amount) as total_amount,
+                        sum(success_events) as success_events,
+                        sum(failure_events) as failure_events,
+                        if(total_events > 0, success_events * 100.0 / total_events, 0) as success_rate
+                    FROM (${this.companyHourlyMetrics('toDateTime(today())')})
+                    GROUP BY company_id
                     ORDER BY total_amount DESC
                 `,
                 format: 'JSON',
@@ -213,13 +257,12 @@ class ClickHouseService {
             const result = await this.client.query({
                 query: `
                     SELECT
-                        toStartOfHour(completed_at) as hour,
-                        count() as event_count,
-                        sum(amount) as total_amount,
-                        countIf(outcome = 'SUCCESS') as success_count,
-                        countIf(outcome = 'FAILURE') as failure_count
-                    FROM audit_completions
-                    WHERE completed_at >= (now() - INTERVAL 24 HOUR)
+                        hour,
+                        sum(total_events) as event_count,
+                        sum(total_amount) as total_amount,
+                        sum(success_events) as success_count,
+                        sum(failure_events) as failure_count
+                    FROM (${this.companyHourlyMetrics('now() - INTERVAL 24 HOUR')})
                     GROUP BY hour
                     ORDER BY hour ASC
                 `,
@@ -256,6 +299,7 @@ class ClickHouseService {
                         processing_time_ms
                     FROM audit_completions
                     ORDER BY completed_at DESC
+                    LIMIT 1 BY event_id
                     LIMIT ${limit}
                 `,
                 format: 'JSON',
@@ -281,29 +325,42 @@ class ClickHouseService {
 
     async getPerformanceMetrics(): Promise<PerformanceMetrics> {
         try {
-            const result = await this.client.query({
-                query: `
-                    SELECT
-                        avg(processing_time_ms) as avg_processing_time,
-                        min(processing_time_ms) as min_processing_time,
-                        max(processing_time_ms) as max_processing_time,
-                        quantile(0.95)(processing_time_ms) as percentile_95,
-                        count() as total_processed
-                    FROM audit_completions
-                    WHERE completed_at >= (now() - INTERVAL 24 HOUR)
-                `,
-                format: 'JSON',
-            });
+            // Averages and totals come from the pre-aggregates; min, max and the
+            // percentile need the individual rows
+            const [totalsResult, distributionResult] = await Promise.all([
+                this.client.query({
+                    query: `
+                        SELECT
+                            if(sum(processing_time_count) > 0, sum(processing_time_sum_ms) / sum(processing_time_count), 0) as avg_processing_time,
+                            sum(total_events) as total_processed
+                        FROM (${this.companyHourlyMetrics('now() - INTERVAL 24 HOUR')})
+                    `,
+                    format: 'JSON',
+                }),
+                this.client.query({
+                    query: `
+                        SELECT
+                            min(processing_time_ms) as min_processing_time,
+                            max(processing_time_ms) as max_processing_time,
+                            quantile(0.95)(processing_time_ms) as percentile_95
+                        FROM audit_completions FINAL
+                        WHERE completed_at >= (now() - INTERVAL 24 HOUR)
+                    `,
+                    format: 'JSON',
+                }),
+            ]);
 
-            const data = await result.json() as any;
-            const rows = Array.isArray(data) ? data : (data.data || []);
-            if (rows.length > 0) {
+            const totalsData = await totalsResult.json() as any;
+            const distributionData = await distributionResult.json() as any;
+            const totals = Array.isArray(totalsData) ? totalsData : (totalsData.data || []);
+            const distribution = Array.isArray(distributionData) ? distributionData : (distributionData.data || []);
+            if (totals.length > 0 && distribution.length > 0) {
                 return {
-                    avg_processing_time: Number(rows[0].avg_processing_time) || 0,
-                    min_processing_time: Number(rows[0].min_processing_time) || 0,
-                    max_processing_time: Number(rows[0].max_processing_time) || 0,
-                    percentile_95: Number(rows[0].percentile_95) || 0,
-                    total_processed: Number(rows[0].total_processed) || 0,
+                    avg_processing_time: Number(totals[0].avg_processing_time) || 0,
+                    min_processing_time: Number(distribution[0].min_processing_time) || 0,
+                    max_processing_time: Number(distribution[0].max_processing_time) || 0,
+                    percentile_95: Number(distribution[0].percentile_95) || 0,
+                    total_processed: Number(totals[0].total_processed) || 0,
                 };
             }
 
@@ -323,7 +380,7 @@ class ClickHouseService {
     async getEventCount(): Promise<number> {
         try {
             const result = await this.client.query({
-                query: 'SELECT count() as total FROM audit_completions',
+                query: `SELECT sum(total_events) as total FROM (${this.companyHourlyMetrics('toDateTime(0)')})`,
                 format: 'JSON',
             });
 
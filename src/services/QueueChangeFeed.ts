@@ -0,0 +1,66 @@
+import { QueueObject } from '../models';
+import { logger } from '../utils';
+import { QueueChange, RedisService } from './RedisService';
+
+export type QueueChangeListener = (objects: QueueObject[], changes: QueueChange[]) => void;
+
+// Tails the queue:changes stream with one blocking read shared by every subscriber, and
+// hands each of them the changed queue objects. Only the hashes named in the change
+// records are read, so Redis load follows the change rate rather than the number of
+// open dashboards or the queue size. The tail runs only while someone is subscribed.
+export class QueueChangeFeed {
+  private readonly listeners = new Set<QueueChangeListener>();
+  private running = false;
+
+  constructor(
+    private readonly redisService: RedisService,
+    private readonly blockMs: number = 5000,
+    private readonly retryDelayMs: number = 1000
+  ) {}
+
+  subscribe(listener: QueueChangeListener): () => void {
+    this.listeners.add(listener);
+    if (!this.running) {
+      this.running = true;
+      void this.run();
+    }
+    return () => {
+      this.listeners.delete(listener);
+    };
+  }
+
+  private async run(): Promise<void> {
+    let lastId: string | null = null;
+
+    try {
+      while (this.listeners.size > 0) {
+        try {
+          if (lastId === null) {
+            lastId = await this.redisService.getLatestQueueChangeId();
+          }
+
+          const { lastId: nextId, changes } = await this.redisService.waitForQueueChanges(lastId, this.blockMs);
+          lastId = nextId;
+          if (changes.length === 0 || this.listeners.size === 0) {
+            continue;
+          }
+
+          const objectIds = Array.from(new Set(changes.map(change => change.objectId)));
+          const objects = await this.redisService.getQueueObjectsByIds(objectIds);
+          this.listeners.forEach(listener => {
+            try {
+              listener(objects, changes);
+            } catch (error) {
+              logger.error('Queue change listener failed:', error);
+            }
+          });
+        } catch (error) {
+          logger.error('Error tailing queue changes:', error);
+          await new Promise(resolve => setTimeout(resolve, this.retryDelayMs));
+        }
+      }
+    } finally {
+      this.running = false;
+    }
+  }
+}
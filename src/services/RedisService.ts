@@ -1,11 +1,76 @@
 import { createClient, RedisClientType } from 'redis';
-import { QueueObject, Outcome } from '../models';
+import { QueueObject, Outcome, Status } from '../models';
 import { logger } from '../utils';
 
+const COMPACT_METADATA_FIELDS: Record<string, string> = {
+  ms: 'summary',
+  mr: 'region',
+  ma: 'amount',
+  mc: 'currency',
+  mf: 'formatted_amount'
+};
+
+// Reads both hash layouts written by the event processor: the compact one (v=2, short
+// field names, epoch-second timestamps, queue-view metadata only) and the legacy one.
+export const decodeQueueObject = (objectId: string, objectData: Record<string, string>): QueueObject | null => {
+  if (!objectData) {
+    return null;
+  }
+
+  if (objectData.v === '2') {
+    const metadata: Record<string, string> = {};
+    Object.entries(COMPACT_METADATA_FIELDS).forEach(([field, key]) => {
+      if (objectData[field] !== undefined) {
+        metadata[key] = objectData[field];
+      }
+    });
+
+    return {
+      objectId,
+      objectType: 'batch',
+      created: new Date(parseInt(objectData.c, 10) * 1000),
+      updated: new Date(parseInt(objectData.u, 10) * 1000),
+      status: objectData.s as any,
+      metadata: JSON.stringify({ records: objectData.r || '0', ...metadata }),
+      records: parseInt(objectData.r || '0'),
+      outcome: objectData.o && objectData.o !== '' ? objectData.o as Outcome : undefined
+    };
+  }
+
+  if (!objectData.objectId) {
+    return null;
+  }
+
+  return {
+    objectId: objectData.objectId,
+    objectType: objectData.objectType || 'batch',
+    created: new Date(objectData.created),
+    updated: new Date(objectData.updated),
+    status: objectData.status as any,
+    metadata: objectData.metadata,
+    records: parseInt(objectData.records || '0'),
+    outcome: objectData.outcome && objectData.outcome !== '' ? objectData.outcome as Outcome : undefined
+  };
+};
+
+export interface QueueChange {
+  objectId: string;
+  status: Status;
+  outcome?: Outcome;
+  updated: Date;
+}
+
+export interface QueueChanges {
+  lastId: string;
+  changes: QueueChange[];
+}
+
 export class RedisService {
   private client: RedisClientType;
+  private tailClient: RedisClientType | null = null;
   private readonly QUEUE_OBJECTS_KEY = 'queue:objects';
   private readonly OBJECT_KEY_PREFIX = 'queue:object:';
+  private readonly QUEUE_CHANGES_KEY = 'queue:changes';
 
   constructor() {
     const redisUrl = process.env.REDIS_URL || 'redis://localhost:6379';
@@ -31,6 +96,10 @@ export class RedisService {
 
   async disconnect(): Promise<void> {
     try {
+      if (this.tailClient) {
+        await this.tailClient.disconnect();
+        this.tailClient = null;
+      }
       await this.client.disconnect();
     } catch (error) {
       logger.error('Failed to disconnect from Redis:', error);
@@ -48,17 +117,9 @@ export class RedisService {
         const objectKey = `${this.OBJECT_KEY_PREFIX}${objectId}`;
         const objectData = await this.client.hGetAll(objectKey);
         
-        if (objectData && objectData.objectId) {
-          objects.push({
-            objectId: objectData.objectId,
-            objectType: objectData.objectType || 'batch',
-            created: new Date(objectData.created),
-            updated: new Date(objectData.updated),
-            status: objectData.status as any,
-            metadata: objectData.metadata,
-            records: parseInt(objectData.records || '0'),
-            outcome: objectData.outcome && objectData.outcome !== '' ? objectData.outcome as Outcome : undefined
-          });
+        const object = decodeQueueObject(objectId, objectData);
+        if (object) {
+          objects.push(object);
         }
       }
 
@@ -77,6 +138,28 @@ export class RedisService {
 
 
 
+  // Current versions of the given queue objects, skipping hashes that have expired.
+  // The reads are issued together so the client pipelines them.
+  async getQueueObjectsByIds(objectIds: string[]): Promise<QueueObject[]> {
+    try {
+      const hashes = await Promise.all(
+        objectIds.map(objectId => this.client.hGetAll(`${this.OBJECT_KEY_PREFIX}${objectId}`))
+      );
+
+      const objects: QueueObject[] = [];
+      hashes.forEach((objectData, index) => {
+        const object = decodeQueueObject(objectIds[index], objectData);
+        if (object) {
+          objects.push(object);
+        }
+      });
+      return objects;
+    } catch (error) {
+      logger.error('Failed to get queue objects by id:', error);
+      throw error;
+    }
+  }
+
   async getQueueLength(): Promise<number> {
     try {
       return await this.client.zCard(this.QUEUE_OBJECTS_KEY);
@@ -86,5 +169,74 @@ export class RedisService {
     }
   }
 
+  // Id of the newest entry in the queue:changes stream written by the event processor,
+  // or '0-0' if the stream is empty.
+  async getLatestQueueChangeId(): Promise<string> {
+    try {
+      const entries = await this.client.xRevRange(this.QUEUE_CHANGES_KEY, '+', '-', { COUNT: 1 });
+      return entries.length > 0 ? entries[0].id : '0-0';
+    } catch (error) {
+      logger.error('Failed to get latest queue change id:', error);
+      throw error;
+    }
+  }
+
+  // Change records appended after lastId, blocking for up to blockMs until one arrives;
+  // callers pass the returned lastId on the next call. Runs on a dedicated connection so
+  // the blocking read does not hold up other commands.
+  async waitForQueueChanges(lastId: string, blockMs: number, count: number = 1000): Promise<QueueChanges> {
+    try {
+      if (!this.tailClient) {
+        const tailClient = this.client.duplicate();
+        tailClient.on('error', (err) => {
+          logger.error('Redis tail client error:', err);
+        });
+        await tailClient.connect();
+        this.tailClient = tailClient;
+      }
 
-}
\ No newline at end of file
+      const streams = await this.tailClient.xRead(
+        { key: this.QUEUE_CHANGES_KEY, id: lastId },
+        { COUNT: count, BLOCK: blockMs }
+      );
+      return this.toQueueChanges(lastId, streams && streams.length > 0 ? streams[0].messages : []);
+    } catch (error) {
+      logger.error('Failed to wait for queue changes:', error);
+      throw error;
+    }
+  }
+
+  private toQueueChanges(lastId: string, messages: { id: string; message: Record<string, string> }[]): QueueChanges {
+    return {
+      lastId: messages.length > 0 ? messages[messages.length - 1].id : lastId,
+      changes: messages.map(({ message }) => ({
+        objectId: message.id,
+        status: message.s as any,
+        outcome: message.o && message.o !== '' ? message.o as Outcome : undefined,
+        updated: new Date(parseInt(message.u, 10) * 1000)
+      }))
+    };
+  }
+
+  // Item counts per status for a batch, maintained incrementally by the event processor.
+  // Null when the batch has no rollup hash (expired, or written before rollups existed).
+  async getBatchItemRollup(batchId: string): Promise<Record<string, number> | null> {
+    try {
+      const counts = await this.client.hGetAll(`queue:rollup:${batchId}`);
+      if (Object.keys(counts).length === 0) {
+        return null;
+      }
+      const rollup: Record<string, number> = {};
+      for (const [status, count] of Object.entries(counts)) {
+        const value = parseInt(count, 10);
+        if (value > 0) {
+          rollup[status] = value;
+        }
+      }
+      return rollup;
+    } catch (error) {
+      logger.error(`Failed to get item rollup for batch ${batchId}:`, error);
+      throw error;
+    }
+  }
+}
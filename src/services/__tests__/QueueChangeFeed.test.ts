@@ -0,0 +1,48 @@
+import { QueueChangeFeed } from '../QueueChangeFeed';
+import { RedisService } from '../RedisService';
+import { QueueObject, Status } from '../../models';
+
+const batch = (objectId: string): QueueObject => ({
+  objectId,
+  objectType: 'batch',
+  created: new Date('2024-01-15T10:30:00Z'),
+  updated: new Date('2024-01-15T10:30:45Z'),
+  status: Status.COMPLETE,
+  metadata: '{}',
+  records: 1
+});
+
+describe('QueueChangeFeed', () => {
+  it('should push only the objects named in new change records', async () => {
+    let reads = 0;
+    const redisService = {
+      getLatestQueueChangeId: jest.fn().mockResolvedValue('1-0'),
+      waitForQueueChanges: jest.fn().mockImplementation(async (lastId: string) => {
+        reads++;
+        if (reads === 1) {
+          return {
+            lastId: '3-0',
+            changes: [
+              { objectId: 'batch-1', status: Status.PROCESSING, updated: new Date() },
+              { objectId: 'batch-1', status: Status.COMPLETE, updated: new Date() }
+            ]
+          };
+        }
+        return { lastId, changes: [] };
+      }),
+      getQueueObjectsByIds: jest.fn().mockResolvedValue([batch('batch-1')])
+    } as unknown as RedisService;
+
+    const feed = new QueueChangeFeed(redisService, 10, 10);
+    const received = await new Promise<QueueObject[]>(resolve => {
+      const unsubscribe = feed.subscribe(objects => {
+        unsubscribe();
+        resolve(objects);
+      });
+    });
+
+    expect(received.map(obj => obj.objectId)).toEqual(['batch-1']);
+    expect(redisService.getQueueObjectsByIds).toHaveBeenCalledWith(['batch-1']);
+    expect(redisService.waitForQueueChanges).toHaveBeenCalledWith('1-0', 10);
+  });
+});
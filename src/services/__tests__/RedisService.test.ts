@@ -0,0 +1,59 @@
+import { decodeQueueObject } from '../RedisService';
+import { Outcome, Status } from '../../models';
+
+describe('decodeQueueObject', () => {
+  it('should decode the compact layout', () => {
+    const object = decodeQueueObject('batch-1', {
+      v: '2',
+      s: 'COMPLETE',
+      o: 'SUCCESS',
+      c: '1705314600',
+      u: '1705314645',
+      r: '5',
+      ms: 'Legal & General',
+      mr: 'UK',
+      ma: '65.42',
+      mc: 'GBP',
+      mf: '£65.42'
+    });
+
+    expect(object).not.toBeNull();
+    expect(object!.objectId).toBe('batch-1');
+    expect(object!.objectType).toBe('batch');
+    expect(object!.status).toBe(Status.COMPLETE);
+    expect(object!.outcome).toBe(Outcome.SUCCESS);
+    expect(object!.records).toBe(5);
+    expect(object!.created.toISOString()).toBe('2024-01-15T10:30:00.000Z');
+    expect(object!.updated.toISOString()).toBe('2024-01-15T10:30:45.000Z');
+    expect(JSON.parse(object!.metadata)).toEqual({
+      records: '5',
+      summary: 'Legal & General',
+      region: 'UK',
+      amount: '65.42',
+      currency: 'GBP',
+      formatted_amount: '£65.42'
+    });
+  });
+
+  it('should decode the legacy layout', () => {
+    const object = decodeQueueObject('batch-1', {
+      objectId: 'batch-1',
+      objectType: 'batch',
+      status: 'PROCESSING',
+      outcome: '',
+      created: '2024-01-15T10:30:00',
+      updated: '2024-01-15T10:30:45',
+      records: '5',
+      metadata: '{"summary":"Legal & General"}'
+    });
+
+    expect(object).not.toBeNull();
+    expect(object!.status).toBe(Status.PROCESSING);
+    expect(object!.outcome).toBeUndefined();
+    expect(object!.metadata).toBe('{"summary":"Legal & General"}');
+  });
+
+  it('should return null for expired or empty hashes', () => {
+    expect(decodeQueueObject('batch-1', {})).toBeNull();
+  });
+});
@@ -1,3 +1,4 @@
 export * from './RedisService';
 export * from './AuditService';
-export * from './CassandraService';
\ No newline at end of file
+export * from './CassandraService';
+export * from './QueueChangeFeed';
\ No newline at end of file